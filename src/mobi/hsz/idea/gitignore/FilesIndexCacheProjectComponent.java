@@ -24,39 +24,54 @@
 
 package mobi.hsz.idea.gitignore;
 
+import com.intellij.ProjectTopics;
 import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.FileIndex;
 import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.*;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.messages.MessageBusConnection;
 import gnu.trove.THashSet;
 import mobi.hsz.idea.gitignore.util.Constants;
 import mobi.hsz.idea.gitignore.util.MatcherUtil;
+import mobi.hsz.idea.gitignore.util.Utils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
  * Cache that retrieves matching files using given {@link Pattern}.
  * It uses {@link VirtualFileListener} to handle changes in the files tree and clear cached entries
- * for the specific pattern parts.
+ * for the specific pattern parts. All cached entries are cleared when the project roots are changed.
  *
  * @author Jakub Chrzanowski <jakub@hsz.mobi>
  * @since 1.3.1
  */
 public class FilesIndexCacheProjectComponent implements ProjectComponent {
+    /** Current project. */
+    @NotNull
+    private final Project project;
+
     /** Concurrent cache map. */
     @NotNull
     private final ConcurrentMap<String, Collection<VirtualFile>> cacheMap;
 
+    /** Concurrent cache map of the {@link #hasFilesForPattern} results, grouped by the root directory. */
+    @NotNull
+    private final ConcurrentMap<VirtualFile, ConcurrentMap<String, Boolean>> matchCacheMap;
+
     /** {@link VirtualFileManager} instance. */
     @NotNull
     private final VirtualFileManager virtualFileManager;
@@ -65,19 +80,37 @@ public class FilesIndexCacheProjectComponent implements ProjectComponent {
     @NotNull
     private final FileIndex projectFileIndex;
 
+    /** MessageBus instance. */
+    @Nullable
+    private MessageBusConnection messageBus;
+
     /** {@link VirtualFileListener} instance to watch for operations on the filesystem. */
     @NotNull
     private final VirtualFileListener virtualFileListener = new VirtualFileListener() {
+        @Override
+        public void beforePropertyChange(@NotNull VirtualFilePropertyEvent event) {
+            if (event.getPropertyName().equals(VirtualFile.PROP_NAME)) {
+                removeAffectedMatches(event.getFile(), true);
+            }
+        }
+
         @Override
         public void propertyChanged(@NotNull VirtualFilePropertyEvent event) {
-            if (event.getPropertyName().equals("name")) {
+            if (event.getPropertyName().equals(VirtualFile.PROP_NAME)) {
                 removeAffectedCaches(event);
+                removeAffectedMatches(event.getFile(), false);
             }
         }
 
         @Override
         public void fileCreated(@NotNull VirtualFileEvent event) {
             removeAffectedCaches(event);
+            removeAffectedMatches(event.getFile(), false);
+        }
+
+        @Override
+        public void beforeFileDeletion(@NotNull VirtualFileEvent event) {
+            removeAffectedMatches(event.getFile(), true);
         }
 
         @Override
@@ -88,16 +121,34 @@ public class FilesIndexCacheProjectComponent implements ProjectComponent {
         @Override
         public void fileMoved(@NotNull VirtualFileMoveEvent event) {
             removeAffectedCaches(event);
+            removeAffectedMatches(event.getFile(), false);
         }
 
         @Override
         public void fileCopied(@NotNull VirtualFileCopyEvent event) {
             removeAffectedCaches(event);
+            removeAffectedMatches(event.getFile(), false);
         }
 
         @Override
         public void beforeFileMovement(@NotNull VirtualFileMoveEvent event) {
             removeAffectedCaches(event);
+            removeAffectedMatches(event.getFile(), true);
+        }
+
+        /**
+         * Removes {@link #hasFilesForPattern} results that the appearing or disappearing file can change - negative
+         * results when the file appears and positive ones when it disappears, for roots containing the file only.
+         *
+         * @param file        created, deleted, moved or renamed file
+         * @param disappeared file is about to be deleted, moved away or renamed
+         */
+        private void removeAffectedMatches(@NotNull VirtualFile file, boolean disappeared) {
+            for (Map.Entry<VirtualFile, ConcurrentMap<String, Boolean>> entry : matchCacheMap.entrySet()) {
+                if (Utils.isUnder(file, entry.getKey())) {
+                    entry.getValue().values().removeIf(found -> found == disappeared);
+                }
+            }
         }
 
         private void removeAffectedCaches(@NotNull VirtualFileEvent event) {
@@ -126,22 +177,39 @@ public class FilesIndexCacheProjectComponent implements ProjectComponent {
      * @param project current project
      */
     protected FilesIndexCacheProjectComponent(@NotNull final Project project) {
+        this.project = project;
         this.cacheMap = ContainerUtil.newConcurrentMap();
+        this.matchCacheMap = ContainerUtil.newConcurrentMap();
         this.virtualFileManager = VirtualFileManager.getInstance();
         this.projectFileIndex = ProjectRootManager.getInstance(project).getFileIndex();
     }
 
-    /** Registers {@link #virtualFileListener} when project is opened. */
+    /**
+     * Registers {@link #virtualFileListener} when project is opened and listens for the project roots changes, which
+     * change the project scope that files are looked up in.
+     */
     @Override
     public void projectOpened() {
         virtualFileManager.addVirtualFileListener(virtualFileListener);
+        messageBus = project.getMessageBus().connect();
+        messageBus.subscribe(ProjectTopics.PROJECT_ROOTS, new CommonRunnableListeners(this::clear));
     }
 
     /** Unregisters {@link #virtualFileListener} when project is closed. */
     @Override
     public void projectClosed() {
         virtualFileManager.removeVirtualFileListener(virtualFileListener);
+        if (messageBus != null) {
+            messageBus.disconnect();
+            messageBus = null;
+        }
+        clear();
+    }
+
+    /** Clears all cached entries. */
+    private void clear() {
         cacheMap.clear();
+        matchCacheMap.clear();
     }
 
     /**
@@ -182,6 +250,54 @@ public class FilesIndexCacheProjectComponent implements ProjectComponent {
         return new ArrayList<>();
     }
 
+    /**
+     * Checks if the specific {@link Pattern} matches any file located under the given root directory.
+     * Files are looked up in the {@link FilenameIndex} with the pattern's literal parts used as a prefilter,
+     * so the search stops on the first matching file instead of collecting all of them. Results are kept until
+     * a file under the root is created, deleted, moved or renamed in a way that can change them.
+     *
+     * @param project current project
+     * @param root    directory that relative paths are computed against
+     * @param pattern to handle
+     * @param matcher {@link MatcherUtil} instance
+     * @return any file matches the pattern
+     */
+    public boolean hasFilesForPattern(@NotNull final Project project, @NotNull final VirtualFile root,
+                                      @NotNull final Pattern pattern, @NotNull final MatcherUtil matcher) {
+        final ConcurrentMap<String, Boolean> matches =
+                matchCacheMap.computeIfAbsent(root, key -> ContainerUtil.newConcurrentMap());
+        final String key = pattern.pattern();
+        final Boolean cached = matches.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        final String[] parts = MatcherUtil.getParts(pattern);
+        final Ref<Boolean> found = Ref.create(false);
+
+        FilenameIndex.processAllFileNames(name -> {
+            ProgressManager.checkCanceled();
+            if (parts.length > 0 && !MatcherUtil.matchAnyPart(parts, name)) {
+                return true;
+            }
+            for (VirtualFile file : FilenameIndex.getVirtualFilesByName(project, name, scope)) {
+                if (!file.isValid() || root.equals(file) || !Utils.isUnder(file, root) ||
+                        !MatcherUtil.matchAllParts(parts, file.getPath())) {
+                    continue;
+                }
+                if (matcher.match(pattern, Utils.getRelativePath(root, file))) {
+                    found.set(true);
+                    return false;
+                }
+            }
+            return true;
+        }, scope, null);
+
+        matches.put(key, found.get());
+        return found.get();
+    }
+
     /**
      * Returns component's name.
      *
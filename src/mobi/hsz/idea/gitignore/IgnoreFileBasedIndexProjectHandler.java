@@ -32,13 +32,14 @@ import com.intellij.openapi.roots.ContentIterator;
 import com.intellij.openapi.startup.StartupManager;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.IndexableFileSet;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
 import mobi.hsz.idea.gitignore.indexing.ExternalIndexableSetContributor;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 import static mobi.hsz.idea.gitignore.IgnoreManager.RefreshStatusesListener.REFRESH_STATUSES;
 
 /**
@@ -106,30 +107,37 @@ public class IgnoreFileBasedIndexProjectHandler implements IndexableFileSet, Pro
     @Override
     public boolean isInSet(@NotNull VirtualFile file) {
         return file.getFileType() instanceof IgnoreFileType &&
-                ExternalIndexableSetContributor.getAdditionalFiles(project).contains(file);
+                ExternalIndexableSetContributor.getSnapshot(project).contains(file);
     }
 
     /**
-     * Iterates over given file's children.
+     * Iterates over the additional files located in the given root. Only the files from
+     * {@link ExternalIndexableSetContributor} snapshot are checked, so no directory is traversed.
      *
-     * @param file     to iterate
+     * @param file     root to iterate
      * @param iterator iterator
      */
     @Override
     public void iterateIndexableFilesIn(@NotNull VirtualFile file, @NotNull final ContentIterator iterator) {
-        VfsUtilCore.visitChildrenRecursively(file, new VirtualFileVisitor() {
-            @Override
-            public boolean visitFile(@NotNull VirtualFile file) {
-                if (!isInSet(file)) {
-                    return false;
-                }
+        iterateFiles(file, ExternalIndexableSetContributor.getSnapshot(project).getFiles(), iterator);
+    }
 
-                if (!file.isDirectory()) {
-                    iterator.processFile(file);
+    /**
+     * Passes to the iterator all the valid ignore files from the given collection that are located in the root.
+     *
+     * @param root     root to iterate
+     * @param files    files to check
+     * @param iterator iterator
+     */
+    static void iterateFiles(@NotNull VirtualFile root, @NotNull Collection<VirtualFile> files,
+                             @NotNull ContentIterator iterator) {
+        for (VirtualFile file : files) {
+            if (file.isValid() && !file.isDirectory() && file.getFileType() instanceof IgnoreFileType &&
+                    VfsUtilCore.isAncestor(root, file, false)) {
+                if (!iterator.processFile(file)) {
+                    return;
                 }
-
-                return true;
             }
-        });
+        }
     }
 }
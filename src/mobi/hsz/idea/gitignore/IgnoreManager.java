@@ -34,18 +34,22 @@ import com.intellij.openapi.components.ProjectComponent;
 import com.intellij.openapi.fileTypes.ExactFileNameMatcher;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.NoAccessDuringPsiEvents;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vcs.FileStatusManager;
 import com.intellij.openapi.vcs.ProjectLevelVcsManager;
 import com.intellij.openapi.vcs.VcsRoot;
 import com.intellij.openapi.vfs.*;
+import com.intellij.util.ObjectUtils;
 import com.intellij.util.Time;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.messages.MessageBusConnection;
 import com.intellij.util.messages.Topic;
@@ -53,20 +57,24 @@ import git4idea.GitVcs;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
 import mobi.hsz.idea.gitignore.file.type.kind.GitExcludeFileType;
 import mobi.hsz.idea.gitignore.file.type.kind.GitFileType;
+import mobi.hsz.idea.gitignore.indexing.CompiledRuleSet;
 import mobi.hsz.idea.gitignore.indexing.ExternalIndexableSetContributor;
 import mobi.hsz.idea.gitignore.indexing.IgnoreEntryOccurrence;
+import mobi.hsz.idea.gitignore.indexing.IgnoreEntryOccurrenceLookup;
 import mobi.hsz.idea.gitignore.indexing.IgnoreFilesIndex;
 import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
 import mobi.hsz.idea.gitignore.settings.IgnoreSettings;
 import mobi.hsz.idea.gitignore.util.*;
 import mobi.hsz.idea.gitignore.util.exec.ExternalExec;
+import mobi.hsz.idea.gitignore.util.exec.GitCheckIgnoreVerifier;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Pattern;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static mobi.hsz.idea.gitignore.IgnoreManager.RefreshTrackedIgnoredListener.TRACKED_IGNORED_REFRESH;
 import static mobi.hsz.idea.gitignore.IgnoreManager.TrackedIgnoredListener.TRACKED_IGNORED;
@@ -117,17 +125,24 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
     @Nullable
     private MessageBusConnection messageBus;
 
+    /** Bounded executor that scans Git roots for the tracked and ignored files concurrently. */
+    @NotNull
+    private static final ExecutorService TRACKED_IGNORED_EXECUTOR =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                    "IgnoreManager tracked ignored files", Math.min(4, Runtime.getRuntime().availableProcessors())
+            );
+
     /** List of the files that are ignored and also tracked by Git. */
     @NotNull
     private final ConcurrentMap<VirtualFile, VcsRoot> confirmedIgnoredFiles = ContainerUtil.createConcurrentWeakMap();
 
     /** List of the new files that were not covered by {@link #confirmedIgnoredFiles} yet. */
     @NotNull
-    private final HashSet<VirtualFile> notConfirmedIgnoredFiles = new HashSet<>();
+    private final Set<VirtualFile> notConfirmedIgnoredFiles = ContainerUtil.newConcurrentSet();
 
-    /** References to the indexed {@link IgnoreEntryOccurrence}. */
+    /** References to the indexed {@link IgnoreEntryOccurrence} grouped by the ignore files' directories. */
     @NotNull
-    private final CachedConcurrentMap<IgnoreFileType, List<IgnoreEntryOccurrence>> cachedIgnoreFilesIndex;
+    private final CachedConcurrentMap<IgnoreFileType, IgnoreEntryOccurrenceLookup> cachedIgnoreFilesIndex;
 
     /** References to the indexed outer files. */
     @NotNull
@@ -136,6 +151,22 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
     @NotNull
     private final ExpiringMap<VirtualFile, Boolean> expiringStatusCache = new ExpiringMap<>(Time.SECOND);
 
+    /**
+     * {@link FileStatusManager#fileStatusesChanged()} method wrapped with {@link Debounced}, invoked when
+     * {@link #gitCheckIgnoreVerifier} got new answers. Verified answers are kept.
+     */
+    private final Debounced debouncedGitVerified = new Debounced(300) {
+        @Override
+        protected void task(@Nullable Object argument) {
+            expiringStatusCache.clear();
+            FileStatusManager.getInstance(project).fileStatusesChanged();
+        }
+    };
+
+    /** Git verification backend used when {@link IgnoreSettings#isGitCheckIgnore()} is enabled. */
+    @NotNull
+    private final GitCheckIgnoreVerifier gitCheckIgnoreVerifier = new GitCheckIgnoreVerifier(debouncedGitVerified);
+
     /** {@link FileStatusManager#fileStatusesChanged()} method wrapped with {@link Debounced}. */
     private final Debounced debouncedStatusesChanged = new Debounced(1000) {
         @Override
@@ -145,14 +176,22 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
         }
     };
 
-    /** {@link FileStatusManager#fileStatusesChanged()} method wrapped with {@link Debounced}. */
+    /** Full rebuild of {@link #confirmedIgnoredFiles} was requested since the last debounced refresh. */
+    @NotNull
+    private final AtomicBoolean fullRefreshRequested = new AtomicBoolean();
+
+    /**
+     * {@link FileStatusManager#fileStatusesChanged()} method wrapped with {@link Debounced}. {@link Debounced} keeps
+     * only the last argument, so a full rebuild requested with {@link #refreshTrackedIgnores(boolean)} wins over
+     * the incremental refreshes merged with it.
+     */
     private final Debounced<Boolean> debouncedRefreshTrackedIgnores = new Debounced<Boolean>(1000) {
         @Override
         protected void task(@Nullable Boolean refresh) {
-            if (Boolean.TRUE.equals(refresh)) {
-                refreshTrackedIgnoredRunnable.refresh();
-            } else {
+            if (fullRefreshRequested.getAndSet(false) || !Boolean.TRUE.equals(refresh)) {
                 refreshTrackedIgnoredRunnable.run();
+            } else {
+                refreshTrackedIgnoredRunnable.refresh();
             }
         }
     };
@@ -192,28 +231,29 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
         public void fileCreated(@NotNull VirtualFileEvent event) {
             handleEvent(event);
             notConfirmedIgnoredFiles.add(event.getFile());
-            debouncedRefreshTrackedIgnores.run(true);
+            refreshTrackedIgnores(true);
         }
 
         @Override
         public void fileDeleted(@NotNull VirtualFileEvent event) {
             handleEvent(event);
             notConfirmedIgnoredFiles.add(event.getFile());
-            debouncedRefreshTrackedIgnores.run(true);
+            refreshTrackedIgnores(true);
         }
 
         @Override
         public void fileMoved(@NotNull VirtualFileMoveEvent event) {
             handleEvent(event);
+            gitCheckIgnoreVerifier.clear();
             notConfirmedIgnoredFiles.add(event.getFile());
-            debouncedRefreshTrackedIgnores.run(true);
+            refreshTrackedIgnores(true);
         }
 
         @Override
         public void fileCopied(@NotNull VirtualFileCopyEvent event) {
             handleEvent(event);
             notConfirmedIgnoredFiles.add(event.getFile());
-            debouncedRefreshTrackedIgnores.run(true);
+            refreshTrackedIgnores(true);
         }
 
         private void handleEvent(@NotNull VirtualFileEvent event) {
@@ -226,8 +266,9 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
                     cachedOuterFiles.remove(GitFileType.INSTANCE);
                 }
                 expiringStatusCache.clear();
+                gitCheckIgnoreVerifier.clear();
                 debouncedStatusesChanged.run();
-                debouncedRefreshTrackedIgnores.run();
+                refreshTrackedIgnores(false);
             }
         }
     };
@@ -246,16 +287,23 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
                 case OUTER_IGNORE_RULES:
                 case LANGUAGES:
                     IgnoreBundle.ENABLED_LANGUAGES.clear();
+                    ExternalIndexableSetContributor.invalidateCache(project);
                     if (isEnabled()) {
                         if (working) {
                             debouncedStatusesChanged.run();
-                            debouncedRefreshTrackedIgnores.run();
+                            refreshTrackedIgnores(false);
                         } else {
                             enable();
                         }
                     }
                     break;
 
+                case GIT_CHECK_IGNORE:
+                    expiringStatusCache.clear();
+                    gitCheckIgnoreVerifier.clear();
+                    debouncedStatusesChanged.run();
+                    break;
+
                 case HIDE_IGNORED_FILES:
                     ProjectView.getInstance(project).refresh();
                     break;
@@ -282,14 +330,16 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
      */
     public IgnoreManager(@NotNull final Project project) {
         this.project = project;
-        this.cachedIgnoreFilesIndex = CachedConcurrentMap.create(key -> IgnoreFilesIndex.getEntries(project, key));
+        this.cachedIgnoreFilesIndex = CachedConcurrentMap.create(
+                key -> new IgnoreEntryOccurrenceLookup(IgnoreFilesIndex.getEntries(project, key))
+        );
         this.cachedOuterFiles = CachedConcurrentMap.create(key -> key.getIgnoreLanguage().getOuterFiles(project));
         this.matcher = new MatcherUtil();
         this.virtualFileManager = VirtualFileManager.getInstance();
         this.settings = IgnoreSettings.getInstance();
         this.refreshTrackedIgnoredRunnable = new RefreshTrackedIgnoredRunnable();
         this.refreshTrackedIgnoredFeature =
-                new InterruptibleScheduledFuture(debouncedRefreshTrackedIgnores, 10000, 5);
+                new InterruptibleScheduledFuture(() -> refreshTrackedIgnores(false), 10000, 5);
         this.refreshTrackedIgnoredFeature.setTrailing(true);
         this.projectLevelVcsManager = ProjectLevelVcsManager.getInstance(project);
         this.commonRunnableListeners = new CommonRunnableListeners(debouncedStatusesChanged);
@@ -322,8 +372,9 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
             return false;
         }
 
-        boolean ignored = false;
-        boolean matched = false;
+        final Boolean verified = settings.isGitCheckIgnore() ? verifyWithGit(file) : null;
+        boolean ignored = Boolean.TRUE.equals(verified);
+        boolean matched = ignored;
         int valuesCount = 0;
 
         for (IgnoreFileType fileType : FILE_TYPES) {
@@ -331,12 +382,17 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
             if (!IgnoreBundle.ENABLED_LANGUAGES.get(fileType)) {
                 continue;
             }
+            if (verified != null && (fileType instanceof GitFileType || fileType instanceof GitExcludeFileType)) {
+                continue;
+            }
 
-            final Collection<IgnoreEntryOccurrence> values =
-                    ContainerUtil.notNullize(cachedIgnoreFilesIndex.get(fileType));
+            final IgnoreEntryOccurrenceLookup lookup = ObjectUtils.notNull(
+                    cachedIgnoreFilesIndex.get(fileType),
+                    IgnoreEntryOccurrenceLookup.EMPTY
+            );
 
-            valuesCount += values.size();
-            for (IgnoreEntryOccurrence value : values) {
+            valuesCount += lookup.size();
+            for (IgnoreEntryOccurrence value : getApplicableOccurrences(fileType, lookup, file)) {
                 ProgressManager.checkCanceled();
                 String relativePath;
                 final VirtualFile entryFile = value.getFile();
@@ -356,7 +412,7 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
                         }
                     }
 
-                    if (ExternalIndexableSetContributor.getAdditionalFiles(project).contains(entryFile)) {
+                    if (ExternalIndexableSetContributor.getSnapshot(project).contains(entryFile)) {
                         final VirtualFile projectDir = Utils.guessProjectDir(project);
                         relativePath = Utils.getRelativePath(projectDir, file);
                     } else {
@@ -376,17 +432,16 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
                     relativePath += "/";
                 }
 
-                for (Pair<String, Boolean> item : value.getItems()) {
-                    final Pattern pattern = Glob.getPattern(item.first);
-                    if (matcher.match(pattern, relativePath)) {
-                        ignored = !item.second;
-                        matched = true;
-                    }
+                final CompiledRuleSet ruleSet = value.getRuleSet();
+                final int index = ruleSet.findLastMatch(matcher, relativePath);
+                if (index >= 0) {
+                    ignored = !ruleSet.isNegated(index);
+                    matched = true;
                 }
             }
         }
 
-        if (valuesCount > 0 && !ignored && !matched) {
+        if (verified == null && valuesCount > 0 && !ignored && !matched) {
             final VirtualFile directory = file.getParent();
             if (directory != null) {
                 for (VcsRoot vcsRoot : vcsRoots) {
@@ -406,6 +461,69 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
         return expiringStatusCache.set(file, ignored);
     }
 
+    /**
+     * Schedules refresh of the {@link #confirmedIgnoredFiles} with {@link #debouncedRefreshTrackedIgnores}.
+     *
+     * @param incremental only files collected in {@link #notConfirmedIgnoredFiles} have to be checked
+     */
+    private void refreshTrackedIgnores(boolean incremental) {
+        if (!incremental) {
+            fullRefreshRequested.set(true);
+        }
+        debouncedRefreshTrackedIgnores.run(incremental);
+    }
+
+    /**
+     * Checks if file is ignored using the cached answers of the <code>git check-ignore</code> process of its Git
+     * repository. Missing answers are requested in the background and file statuses are refreshed when they arrive.
+     *
+     * @param file file to check
+     * @return file is ignored or <code>null</code> if file is not in a Git repository or the answer is not known yet
+     */
+    @Nullable
+    private Boolean verifyWithGit(@NotNull VirtualFile file) {
+        if (!Utils.isGitPluginEnabled()) {
+            return null;
+        }
+        final VcsRoot vcsRoot = ContainerUtil.find(
+                ContainerUtil.reverse(vcsRoots),
+                root -> root.getVcs() instanceof GitVcs && Utils.isUnder(file, root.getPath())
+        );
+        return vcsRoot != null ? gitCheckIgnoreVerifier.isIgnored(vcsRoot.getPath(), file) : null;
+    }
+
+    /**
+     * Returns indexed occurrences that may apply to the given file: Git exclude files, additional (external) files
+     * and ignore files placed in the file's ancestor directories, ordered from the top-most one.
+     *
+     * @param fileType ignore file type
+     * @param lookup   indexed occurrences of the file type
+     * @param file     file to check
+     * @return applicable occurrences
+     */
+    @NotNull
+    private List<IgnoreEntryOccurrence> getApplicableOccurrences(@NotNull IgnoreFileType fileType,
+                                                                 @NotNull IgnoreEntryOccurrenceLookup lookup,
+                                                                 @NotNull VirtualFile file) {
+        if (fileType instanceof GitExcludeFileType) {
+            return lookup.getAll();
+        }
+
+        final ExternalIndexableSetContributor.Snapshot additionalFiles =
+                ExternalIndexableSetContributor.getSnapshot(project);
+        final List<IgnoreEntryOccurrence> result = new ArrayList<>();
+        for (VirtualFile additionalFile : additionalFiles.getFiles()) {
+            ContainerUtil.addIfNotNull(result, lookup.getByFile(additionalFile));
+        }
+        for (IgnoreEntryOccurrence value : lookup.getAncestors(file)) {
+            final VirtualFile entryFile = value.getFile();
+            if (entryFile != null && !additionalFiles.contains(entryFile)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
     /**
      * Finds {@link VirtualFile} directory of {@link VcsRoot} that contains passed file.
      *
@@ -496,7 +614,7 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
 
         messageBus = project.getMessageBus().connect();
 
-        messageBus.subscribe(TRACKED_IGNORED_REFRESH, () -> debouncedRefreshTrackedIgnores.run(true));
+        messageBus.subscribe(TRACKED_IGNORED_REFRESH, () -> refreshTrackedIgnores(true));
 
         messageBus.subscribe(ProjectLevelVcsManager.VCS_CONFIGURATION_CHANGED, () -> {
             ExternalIndexableSetContributor.invalidateCache(project);
@@ -524,7 +642,7 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
 
     /** Disable manager. */
     private void disable() {
-        ExternalIndexableSetContributor.invalidateCache(project);
+        ExternalIndexableSetContributor.removeCache(project);
         virtualFileManager.removeVirtualFileListener(virtualFileListener);
         settings.removeListener(settingsListener);
 
@@ -555,46 +673,315 @@ public class IgnoreManager implements DumbAware, ProjectComponent {
         }
     }
 
+    /**
+     * Merges result of the incremental tracked ignored files check into the confirmed files. Entries that are no longer
+     * valid or are located under the changed files are replaced with the found ones.
+     *
+     * @param confirmed confirmed tracked and ignored files to update
+     * @param changed   changed files that were checked
+     * @param found     tracked and ignored files found under the changed files
+     * @return confirmed files were modified
+     */
+    static boolean mergeChanged(@NotNull Map<VirtualFile, VcsRoot> confirmed, @NotNull Collection<VirtualFile> changed,
+                                @NotNull Map<VirtualFile, VcsRoot> found) {
+        boolean modified = false;
+        for (VirtualFile file : new ArrayList<>(confirmed.keySet())) {
+            if (!found.containsKey(file) &&
+                    (!file.isValid() || ContainerUtil.exists(changed, directory -> Utils.isUnder(file, directory)))) {
+                confirmed.remove(file);
+                modified = true;
+            }
+        }
+        for (Map.Entry<VirtualFile, VcsRoot> entry : found.entrySet()) {
+            if (!entry.getValue().equals(confirmed.put(entry.getKey(), entry.getValue()))) {
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
     /** {@link Runnable} implementation to rebuild {@link #confirmedIgnoredFiles}. */
     class RefreshTrackedIgnoredRunnable implements Runnable, IgnoreManager.RefreshTrackedIgnoredListener {
+        /**
+         * Maximum amount of changed files that are refreshed incrementally. Bigger changes are handled with the full
+         * rebuild, which is cheaper than a long list of pathspecs.
+         */
+        private static final int MAX_INCREMENTAL_FILES = 100;
+
+        /** {@link #confirmedIgnoredFiles} map was fully built at least once. */
+        private volatile boolean initialized;
+
+        /** Rebuild is in progress. */
+        @NotNull
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        /** No rebuild is requested. */
+        private static final int NO_REQUEST = 0;
+
+        /** Rebuild that does not propagate the event is requested. */
+        private static final int SILENT_REQUEST = 1;
+
+        /** Rebuild that propagates the event is requested. Takes precedence over {@link #SILENT_REQUEST}. */
+        private static final int NOTIFY_REQUEST = 2;
+
+        /** Pending rebuild request, merged with the ones requested while the current rebuild is in progress. */
+        @NotNull
+        private final AtomicInteger request = new AtomicInteger(NO_REQUEST);
+
         /** Default {@link Runnable} run method that invokes rebuilding with bus event propagating. */
         @Override
         public void run() {
             run(false);
         }
 
-        /** Rebuilds {@link #confirmedIgnoredFiles} map in silent mode. */
+        /**
+         * Refreshes {@link #confirmedIgnoredFiles} map in silent mode. Only files collected in
+         * {@link #notConfirmedIgnoredFiles} are checked if possible, otherwise the map is rebuilt.
+         */
         @Override
         public void refresh() {
-            this.run(true);
+            if (!refreshChanged()) {
+                this.run(true);
+            }
+        }
+
+        /**
+         * Updates {@link #confirmedIgnoredFiles} map with the state of the changed files only, running the git command
+         * with the pathspecs of the changed files. Map is left untouched if git fails for any root.
+         *
+         * @return map was updated incrementally
+         */
+        private boolean refreshChanged() {
+            final List<VirtualFile> changed = new ArrayList<>(notConfirmedIgnoredFiles);
+            if (!initialized || running.get() || changed.size() > MAX_INCREMENTAL_FILES) {
+                return false;
+            }
+            if (changed.isEmpty()) {
+                return true;
+            }
+
+            final Map<VcsRoot, List<String>> paths = new HashMap<>();
+            for (VirtualFile file : changed) {
+                if (!file.isValid()) {
+                    continue;
+                }
+                final VcsRoot vcsRoot = ContainerUtil.find(
+                        ContainerUtil.reverse(vcsRoots),
+                        root -> Utils.isUnder(file, root.getPath())
+                );
+                if (vcsRoot == null || !Utils.isGitPluginEnabled() || !(vcsRoot.getVcs() instanceof GitVcs)) {
+                    continue;
+                }
+                final String path = VfsUtilCore.getRelativePath(file, vcsRoot.getPath(), '/');
+                if (path != null) {
+                    paths.computeIfAbsent(vcsRoot, key -> new ArrayList<>()).add(path.isEmpty() ? "." : path);
+                }
+            }
+
+            final Map<VirtualFile, VcsRoot> found = new HashMap<>();
+            for (Map.Entry<VcsRoot, List<String>> entry : paths.entrySet()) {
+                final VirtualFile root = entry.getKey().getPath();
+                final boolean succeeded = ExternalExec.processIgnoredFiles(entry.getKey(), entry.getValue(), path -> {
+                    final VirtualFile file = root.findFileByRelativePath(path);
+                    if (file != null) {
+                        found.put(file, entry.getKey());
+                    }
+                });
+                if (!succeeded) {
+                    return false;
+                }
+            }
+
+            notConfirmedIgnoredFiles.removeAll(changed);
+            if (mergeChanged(confirmedIgnoredFiles, changed, found)) {
+                updateViews();
+            }
+            return true;
         }
 
         /**
-         * Rebuilds {@link #confirmedIgnoredFiles} map.
+         * Rebuilds {@link #confirmedIgnoredFiles} map. Git roots are scanned concurrently on
+         * {@link #TRACKED_IGNORED_EXECUTOR} in a background task with progress. If the rebuild is already running,
+         * another one is started right after it finishes.
          *
          * @param silent propagate {@link IgnoreManager.TrackedIgnoredListener#TRACKED_IGNORED} event
          */
         public void run(boolean silent) {
+            request.accumulateAndGet(silent ? SILENT_REQUEST : NOTIFY_REQUEST, Math::max);
+            if (running.compareAndSet(false, true)) {
+                start();
+            }
+        }
+
+        /** Starts the pending rebuild. Must be called by the thread that has set {@link #running}. */
+        private void start() {
+            final int pending = request.getAndSet(NO_REQUEST);
+            if (pending == NO_REQUEST) {
+                finish();
+                return;
+            }
+            final boolean silent = pending == SILENT_REQUEST;
+
+            final List<VirtualFile> changed = new ArrayList<>(notConfirmedIgnoredFiles);
+            final List<VcsRoot> roots = Utils.isGitPluginEnabled() ?
+                    ContainerUtil.filter(vcsRoots, root -> root.getVcs() instanceof GitVcs) :
+                    Collections.emptyList();
+            if (roots.isEmpty()) {
+                apply(ContainerUtil.newConcurrentMap(), changed, silent);
+                finish();
+                return;
+            }
+
+            final Task.Backgroundable task = new Task.Backgroundable(
+                    project, IgnoreBundle.message("cache.trackedIgnored"), true
+            ) {
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    final ConcurrentMap<VirtualFile, VcsRoot> result = scan(roots, indicator);
+                    if (result != null) {
+                        apply(result, changed, silent);
+                    }
+                }
+
+                @Override
+                public void onFinished() {
+                    finish();
+                }
+            };
+            ApplicationManager.getApplication().invokeLater(
+                    () -> ProgressManager.getInstance().run(task),
+                    project.getDisposed()
+            );
+        }
+
+        /**
+         * Scans given Git roots concurrently. Failure of a single root does not affect the others - its previously
+         * confirmed files are kept.
+         *
+         * @param roots     Git roots to scan
+         * @param indicator progress indicator
+         * @return tracked and ignored files or <code>null</code> if canceled
+         */
+        @Nullable
+        private ConcurrentMap<VirtualFile, VcsRoot> scan(@NotNull List<VcsRoot> roots,
+                                                         @NotNull ProgressIndicator indicator) {
             final ConcurrentMap<VirtualFile, VcsRoot> result = ContainerUtil.newConcurrentMap();
-            for (VcsRoot vcsRoot : vcsRoots) {
-                if (!Utils.isGitPluginEnabled() || !(vcsRoot.getVcs() instanceof GitVcs)) {
-                    continue;
+            final AtomicInteger done = new AtomicInteger();
+            final List<Future<?>> futures = new ArrayList<>(roots.size());
+            indicator.setIndeterminate(false);
+
+            for (VcsRoot vcsRoot : roots) {
+                futures.add(TRACKED_IGNORED_EXECUTOR.submit(() -> {
+                    scanRoot(vcsRoot, result, indicator);
+                    indicator.setFraction((double) done.incrementAndGet() / roots.size());
+                    indicator.setText2(vcsRoot.getPath().getPresentableUrl());
+                }));
+            }
+
+            try {
+                for (Future<?> future : futures) {
+                    while (true) {
+                        indicator.checkCanceled();
+                        try {
+                            future.get(100, TimeUnit.MILLISECONDS);
+                            break;
+                        } catch (TimeoutException ignored) {
+                        } catch (ExecutionException ignored) {
+                            break;
+                        }
+                    }
                 }
-                final VirtualFile root = vcsRoot.getPath();
-                for (String path : ExternalExec.getIgnoredFiles(vcsRoot)) {
+            } catch (ProcessCanceledException e) {
+                cancel(futures, indicator);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(futures, indicator);
+                return null;
+            }
+
+            return result;
+        }
+
+        /**
+         * Cancels scanning of the Git roots. Running git processes are destroyed by {@link ExternalExec} once
+         * the indicator is canceled, because the blocking read of their output cannot be interrupted.
+         *
+         * @param futures   scans of the Git roots
+         * @param indicator progress indicator
+         */
+        private void cancel(@NotNull List<Future<?>> futures, @NotNull ProgressIndicator indicator) {
+            indicator.cancel();
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * Scans single Git root and puts its tracked and ignored files to the result.
+         *
+         * @param vcsRoot   Git root to scan
+         * @param result    map to fill
+         * @param indicator progress indicator
+         */
+        private void scanRoot(@NotNull VcsRoot vcsRoot, @NotNull ConcurrentMap<VirtualFile, VcsRoot> result,
+                              @NotNull ProgressIndicator indicator) {
+            final VirtualFile root = vcsRoot.getPath();
+            boolean succeeded;
+            try {
+                succeeded = ExternalExec.processIgnoredFiles(vcsRoot, path -> {
+                    indicator.checkCanceled();
                     final VirtualFile file = root.findFileByRelativePath(path);
                     if (file != null) {
                         result.put(file, vcsRoot);
                     }
+                }, indicator);
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                succeeded = false;
+            }
+
+            if (!succeeded) {
+                for (Map.Entry<VirtualFile, VcsRoot> entry : confirmedIgnoredFiles.entrySet()) {
+                    if (vcsRoot.equals(entry.getValue())) {
+                        result.put(entry.getKey(), vcsRoot);
+                    }
                 }
             }
+        }
 
+        /**
+         * Replaces {@link #confirmedIgnoredFiles} with the rebuilt map. Only the files collected in
+         * {@link #notConfirmedIgnoredFiles} before the rebuild started are confirmed, files changed during the scan
+         * still have to be checked.
+         *
+         * @param result  rebuilt map
+         * @param changed snapshot of {@link #notConfirmedIgnoredFiles} taken when the rebuild started
+         * @param silent  propagate {@link IgnoreManager.TrackedIgnoredListener#TRACKED_IGNORED} event
+         */
+        private void apply(@NotNull ConcurrentMap<VirtualFile, VcsRoot> result, @NotNull List<VirtualFile> changed,
+                           boolean silent) {
             if (!silent && !result.isEmpty()) {
                 project.getMessageBus().syncPublisher(TRACKED_IGNORED).handleFiles(result);
             }
             confirmedIgnoredFiles.clear();
             confirmedIgnoredFiles.putAll(result);
-            notConfirmedIgnoredFiles.clear();
+            notConfirmedIgnoredFiles.removeAll(changed);
+            initialized = true;
+            updateViews();
+        }
+
+        /** Marks the rebuild as finished and starts the requested one, if any. */
+        private void finish() {
+            running.set(false);
+            if (request.get() != NO_REQUEST && !project.isDisposed() && running.compareAndSet(false, true)) {
+                start();
+            }
+        }
+
+        /** Refreshes files statuses and project views after {@link #confirmedIgnoredFiles} change. */
+        private void updateViews() {
             debouncedStatusesChanged.run();
 
             for (AbstractProjectViewPane pane : AbstractProjectViewPane.EP_NAME.getExtensions()) {
@@ -0,0 +1,315 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import mobi.hsz.idea.gitignore.util.PathTrie;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project component that keeps an immutable snapshot of the project roots read from the modules' root models.
+ * Snapshot is dropped when project roots or modules are changed and lazily rebuilt on the next access.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class ProjectRootsCacheProjectComponent implements ProjectComponent {
+    /** Current project. */
+    @NotNull
+    private final Project project;
+
+    /** MessageBus instance. */
+    @Nullable
+    private MessageBusConnection messageBus;
+
+    /** Current snapshot, <code>null</code> if it has to be rebuilt. */
+    @Nullable
+    private volatile Snapshot snapshot;
+
+    /** Roots modification counter, incremented on every {@link #invalidate()} call. */
+    @NotNull
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Returns {@link ProjectRootsCacheProjectComponent} service instance.
+     *
+     * @param project current project
+     * @return {@link ProjectRootsCacheProjectComponent instance}
+     */
+    @NotNull
+    public static ProjectRootsCacheProjectComponent getInstance(@NotNull final Project project) {
+        return project.getComponent(ProjectRootsCacheProjectComponent.class);
+    }
+
+    /** Constructor. */
+    public ProjectRootsCacheProjectComponent(@NotNull final Project project) {
+        this.project = project;
+    }
+
+    /** Initializes component and listens for the roots changes. */
+    @Override
+    public void initComponent() {
+        messageBus = project.getMessageBus().connect();
+        final CommonRunnableListeners listeners = new CommonRunnableListeners(this::invalidate);
+        messageBus.subscribe(ProjectTopics.PROJECT_ROOTS, listeners);
+        messageBus.subscribe(ProjectTopics.MODULES, listeners);
+    }
+
+    /** Disconnects from the message bus and drops the snapshot. */
+    @Override
+    public void disposeComponent() {
+        if (messageBus != null) {
+            messageBus.disconnect();
+            messageBus = null;
+        }
+        invalidate();
+    }
+
+    /** Drops current snapshot. Snapshots that are being built at the moment are considered outdated. */
+    public void invalidate() {
+        modificationCount.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Returns excluded roots of all project modules.
+     *
+     * @return excluded roots
+     */
+    @NotNull
+    public List<VirtualFile> getExcludedRoots() {
+        return getSnapshot().excludedRoots;
+    }
+
+    /**
+     * Returns excluded roots organized in the {@link PathTrie} for the fast lookups.
+     *
+     * @return excluded roots trie
+     */
+    @NotNull
+    public PathTrie<VirtualFile> getExcludedRootsTrie() {
+        return getSnapshot().excludedRootsTrie;
+    }
+
+    /**
+     * Checks if given file is located under any of the excluded roots.
+     *
+     * @param file to check
+     * @return file is excluded
+     */
+    public boolean isExcluded(@NotNull VirtualFile file) {
+        return getSnapshot().excludedRootsTrie.isUnder(file);
+    }
+
+    /**
+     * Returns module which content contains given file. Lookup is performed on the content roots trie, so the
+     * deepest content root wins and files located under excluded roots are not assigned to any module. Same as
+     * the module content scope, files ignored by {@link FileTypeManager} (i.e. <code>.git</code> directory) or
+     * located inside of such directories are not assigned to any module either.
+     *
+     * @param file to check
+     * @return module or <code>null</code>
+     */
+    @Nullable
+    public Module getModuleForFile(@NotNull VirtualFile file) {
+        final ModuleRoot root = getSnapshot().contentRootsTrie.findNearest(file);
+        if (root == null || root.module == null) {
+            return null;
+        }
+
+        final FileTypeManager fileTypeManager = FileTypeManager.getInstance();
+        for (VirtualFile current = file; current != null && !current.equals(root.root); current = current.getParent()) {
+            if (fileTypeManager.isFileIgnored(current)) {
+                return null;
+            }
+        }
+        return root.module;
+    }
+
+    /**
+     * Returns the first content root of the given module.
+     *
+     * @param module to check
+     * @return module root or <code>null</code>
+     */
+    @Nullable
+    public VirtualFile getModuleRoot(@NotNull Module module) {
+        return getSnapshot().moduleRoots.get(module);
+    }
+
+    /**
+     * Returns current snapshot or builds a new one if it was invalidated. Snapshot is stamped with the
+     * {@link #modificationCount} read before building, so a snapshot published after a concurrent roots change
+     * is rebuilt on the next access.
+     *
+     * @return snapshot
+     */
+    @NotNull
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || current.modificationCount != modificationCount.get()) {
+            final long stamp = modificationCount.get();
+            current = ReadAction.compute(() -> build(stamp));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Reads modules' root models and builds a new {@link Snapshot}.
+     *
+     * @param stamp {@link #modificationCount} value read before building
+     * @return snapshot
+     */
+    @NotNull
+    private Snapshot build(long stamp) {
+        final List<VirtualFile> excludedRoots = new ArrayList<>();
+        final Map<String, VirtualFile> excludedPaths = new HashMap<>();
+        final Map<String, ModuleRoot> contentPaths = new LinkedHashMap<>();
+        final Map<Module, VirtualFile> moduleRoots = new HashMap<>();
+
+        if (!project.isDisposed()) {
+            final Module[] modules = ModuleManager.getInstance(project).getModules();
+            for (Module module : modules) {
+                if (module.isDisposed()) {
+                    continue;
+                }
+                final VirtualFile[] contentRoots = ModuleRootManager.getInstance(module).getContentRoots();
+                for (VirtualFile root : contentRoots) {
+                    contentPaths.put(root.getPath(), new ModuleRoot(module, root));
+                }
+                final VirtualFile first = contentRoots.length > 0 ? contentRoots[0] : null;
+                if (first != null && first.isDirectory()) {
+                    moduleRoots.put(module, first);
+                }
+            }
+
+            // excluded roots are put after the content roots, so they take precedence for the same paths
+            for (Module module : modules) {
+                if (module.isDisposed()) {
+                    continue;
+                }
+                for (VirtualFile root : ModuleRootManager.getInstance(module).getExcludeRoots()) {
+                    excludedRoots.add(root);
+                    excludedPaths.put(root.getPath(), root);
+                    contentPaths.put(root.getPath(), ModuleRoot.EXCLUDED);
+                }
+            }
+        }
+
+        return new Snapshot(
+                stamp,
+                ContainerUtil.immutableList(excludedRoots),
+                PathTrie.create(excludedPaths),
+                PathTrie.create(contentPaths),
+                Collections.unmodifiableMap(moduleRoots)
+        );
+    }
+
+    /**
+     * Returns component's name.
+     *
+     * @return component's name
+     */
+    @NonNls
+    @NotNull
+    @Override
+    public String getComponentName() {
+        return "ProjectRootsCacheProjectComponent";
+    }
+
+    /** Immutable snapshot of the project roots. */
+    private static class Snapshot {
+        /** {@link #modificationCount} value the snapshot was built for. */
+        private final long modificationCount;
+
+        /** Excluded roots list. */
+        @NotNull
+        private final List<VirtualFile> excludedRoots;
+
+        /** Excluded roots trie. */
+        @NotNull
+        private final PathTrie<VirtualFile> excludedRootsTrie;
+
+        /** Content and excluded roots trie. */
+        @NotNull
+        private final PathTrie<ModuleRoot> contentRootsTrie;
+
+        /** First content root of each module. */
+        @NotNull
+        private final Map<Module, VirtualFile> moduleRoots;
+
+        /** Constructor. */
+        private Snapshot(long modificationCount, @NotNull List<VirtualFile> excludedRoots,
+                         @NotNull PathTrie<VirtualFile> excludedRootsTrie,
+                         @NotNull PathTrie<ModuleRoot> contentRootsTrie,
+                         @NotNull Map<Module, VirtualFile> moduleRoots) {
+            this.modificationCount = modificationCount;
+            this.excludedRoots = excludedRoots;
+            this.excludedRootsTrie = excludedRootsTrie;
+            this.contentRootsTrie = contentRootsTrie;
+            this.moduleRoots = moduleRoots;
+        }
+    }
+
+    /** Value of the content roots trie - module owning the root or no module for the excluded roots. */
+    private static class ModuleRoot {
+        /** Marker for the excluded roots. */
+        private static final ModuleRoot EXCLUDED = new ModuleRoot(null, null);
+
+        /** Module owning the root. */
+        @Nullable
+        private final Module module;
+
+        /** Content root directory. */
+        @Nullable
+        private final VirtualFile root;
+
+        /** Constructor. */
+        private ModuleRoot(@Nullable Module module, @Nullable VirtualFile root) {
+            this.module = module;
+            this.root = root;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 /**
  * Inspection tool that checks if entries are covered by others.
@@ -141,17 +142,15 @@ public class IgnoreCoverEntryInspection extends LocalInspectionTool {
 
         final ProblemsHolder problemsHolder = new ProblemsHolder(manager, file, isOnTheFly);
         final List<Pair<IgnoreEntry, IgnoreEntry>> result = new ArrayList<>();
-        final Map<IgnoreEntry, Set<String>> map = new HashMap<>();
+        final Map<IgnoreFileAnalysis.Entry, Set<String>> map = new LinkedHashMap<>();
 
-        final ArrayList<IgnoreEntry> entries = new ArrayList<>(Arrays.asList(
-                ((IgnoreFile) file).findChildrenByClass(IgnoreEntry.class)
-        ));
+        final List<IgnoreFileAnalysis.Entry> entries = IgnoreFileAnalysis.getInstance((IgnoreFile) file).getEntries();
         final MatcherUtil matcher = IgnoreManager.getInstance(file.getProject()).getMatcher();
         final Map<IgnoreEntry, Set<String>> matchedMap = getPathsSet(contextDirectory, entries, matcher);
 
-        for (IgnoreEntry entry : entries) {
+        for (IgnoreFileAnalysis.Entry entry : entries) {
             ProgressManager.checkCanceled();
-            Set<String> matched = matchedMap.get(entry);
+            Set<String> matched = matchedMap.get(entry.getElement());
             Collection<String> intersection;
             boolean modified;
 
@@ -169,22 +168,23 @@ public class IgnoreCoverEntryInspection extends LocalInspectionTool {
                 continue;
             }
 
-            for (IgnoreEntry recent : map.keySet()) {
+            for (Map.Entry<IgnoreFileAnalysis.Entry, Set<String>> item : map.entrySet()) {
                 ProgressManager.checkCanceled();
-                Set<String> recentValues = map.get(recent);
+                final IgnoreFileAnalysis.Entry recent = item.getKey();
+                final Set<String> recentValues = item.getValue();
                 if (recentValues.isEmpty() || matched.isEmpty()) {
                     continue;
                 }
 
                 if (entry.isNegated() == recent.isNegated()) {
                     if (recentValues.containsAll(matched)) {
-                        result.add(Pair.create(recent, entry));
+                        result.add(Pair.create(recent.getElement(), entry.getElement()));
                     } else if (matched.containsAll(recentValues)) {
-                        result.add(Pair.create(entry, recent));
+                        result.add(Pair.create(entry.getElement(), recent.getElement()));
                     }
                 } else {
                     if (intersection.containsAll(recentValues)) {
-                        result.add(Pair.create(entry, recent));
+                        result.add(Pair.create(entry.getElement(), recent.getElement()));
                     }
                 }
             }
@@ -201,8 +201,9 @@ public class IgnoreCoverEntryInspection extends LocalInspectionTool {
     }
 
     /**
-     * Returns the paths list for the given {@link IgnoreEntry} array in {@link VirtualFile} context.
-     * Stores fetched data in {@link #cacheMap} to limit the queries to the files tree.
+     * Returns the paths list for the given analysed entries in {@link VirtualFile} context.
+     * Stores fetched data in {@link #cacheMap} to limit the queries to the files tree. Entries that are not cached
+     * yet are searched using patterns already compiled by {@link IgnoreFileAnalysis}.
      *
      * @param contextDirectory current context
      * @param entries          to check
@@ -210,18 +211,18 @@ public class IgnoreCoverEntryInspection extends LocalInspectionTool {
      */
     @NotNull
     private Map<IgnoreEntry, Set<String>> getPathsSet(@NotNull VirtualFile contextDirectory,
-                                                      @NotNull ArrayList<IgnoreEntry> entries,
+                                                      @NotNull List<IgnoreFileAnalysis.Entry> entries,
                                                       @NotNull MatcherUtil matcher) {
         final Map<IgnoreEntry, Set<String>> result = new HashMap<>();
-        final ArrayList<IgnoreEntry> notCached = new ArrayList<>();
+        final Map<IgnoreEntry, Pattern> notCached = new LinkedHashMap<>();
 
-        for (IgnoreEntry entry : entries) {
+        for (IgnoreFileAnalysis.Entry entry : entries) {
             ProgressManager.checkCanceled();
             final String key = contextDirectory.getPath() + Constants.DOLLAR + entry.getText();
             if (!cacheMap.containsKey(key)) {
-                notCached.add(entry);
+                notCached.put(entry.getElement(), entry.getRule().getPattern());
             }
-            result.put(entry, cacheMap.get(key));
+            result.put(entry.getElement(), cacheMap.get(key));
         }
 
         final Map<IgnoreEntry, Set<String>> found = Glob.findAsPaths(contextDirectory, notCached, matcher, true);
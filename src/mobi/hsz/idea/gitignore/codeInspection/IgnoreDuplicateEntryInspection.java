@@ -33,7 +33,6 @@ import com.intellij.util.containers.MultiMap;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.psi.IgnoreEntry;
 import mobi.hsz.idea.gitignore.psi.IgnoreFile;
-import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -68,13 +67,9 @@ public class IgnoreDuplicateEntryInspection extends LocalInspectionTool {
         final ProblemsHolder problemsHolder = new ProblemsHolder(manager, file, isOnTheFly);
         final MultiMap<String, IgnoreEntry> entries = MultiMap.create();
 
-        file.acceptChildren(new IgnoreVisitor() {
-            @Override
-            public void visitEntry(@NotNull IgnoreEntry entry) {
-                entries.putValue(entry.getText(), entry);
-                super.visitEntry(entry);
-            }
-        });
+        for (IgnoreFileAnalysis.Entry entry : IgnoreFileAnalysis.getInstance((IgnoreFile) file).getEntries()) {
+            entries.putValue(entry.getText(), entry.getElement());
+        }
 
         for (Map.Entry<String, Collection<IgnoreEntry>> stringCollectionEntry : entries.entrySet()) {
             Iterator<IgnoreEntry> iterator = stringCollectionEntry.getValue().iterator();
@@ -0,0 +1,258 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.codeInspection;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.containers.ContainerUtil;
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.psi.IgnoreEntry;
+import mobi.hsz.idea.gitignore.psi.IgnoreFile;
+import mobi.hsz.idea.gitignore.psi.IgnoreSyntax;
+import mobi.hsz.idea.gitignore.psi.IgnoreSyntaxRuns;
+import mobi.hsz.idea.gitignore.util.CompiledRule;
+import mobi.hsz.idea.gitignore.util.Glob;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Per-file model shared by the ignore file inspections. It is built in a single pass over the {@link IgnoreFile}
+ * children and cached until the file is modified, so the inspections do not have to walk the PSI tree and
+ * recompute entries' text, value, syntax and patterns on their own.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class IgnoreFileAnalysis {
+    /** Pattern that matches escaped characters. */
+    private static final Pattern ESCAPED = Pattern.compile("\\\\(.)");
+
+    /** Analysed entries in the file order. */
+    @NotNull
+    private final List<Entry> entries;
+
+    /** Analysed entries mapped by their PSI elements. */
+    @NotNull
+    private final Map<IgnoreEntry, Entry> entriesMap;
+
+    /** Syntax elements mapped with resolved {@link IgnoreBundle.Syntax} or <code>null</code> if invalid. */
+    @NotNull
+    private final Map<IgnoreSyntax, IgnoreBundle.Syntax> syntaxes;
+
+    /**
+     * Builds the model walking through the file's children once. Entries' syntax is resolved with
+     * {@link IgnoreSyntaxRuns}.
+     *
+     * @param file ignore file to analyse
+     */
+    private IgnoreFileAnalysis(@NotNull IgnoreFile file) {
+        final List<Entry> entries = new ArrayList<>();
+        final Map<IgnoreEntry, Entry> entriesMap = new HashMap<>();
+        final Map<IgnoreSyntax, IgnoreBundle.Syntax> syntaxes = new HashMap<>();
+
+        final IgnoreSyntaxRuns runs = IgnoreSyntaxRuns.getInstance(file);
+        for (PsiElement child = file.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof IgnoreSyntax) {
+                syntaxes.put((IgnoreSyntax) child, IgnoreBundle.Syntax.find(
+                        ((IgnoreSyntax) child).getValue().getText()
+                ));
+            } else if (child instanceof IgnoreEntry) {
+                final Entry entry = new Entry((IgnoreEntry) child, runs.getSyntaxAt(child.getTextOffset()));
+                entries.add(entry);
+                entriesMap.put(entry.element, entry);
+            }
+        }
+
+        this.entries = ContainerUtil.immutableList(entries);
+        this.entriesMap = entriesMap;
+        this.syntaxes = syntaxes;
+    }
+
+    /**
+     * Returns cached {@link IgnoreFileAnalysis} for the given file. Model is rebuilt when the file is modified.
+     *
+     * @param file ignore file
+     * @return file model
+     */
+    @NotNull
+    public static IgnoreFileAnalysis getInstance(@NotNull IgnoreFile file) {
+        return CachedValuesManager.getCachedValue(
+                file,
+                () -> CachedValueProvider.Result.create(new IgnoreFileAnalysis(file), file)
+        );
+    }
+
+    /**
+     * Returns all entries in the file order.
+     *
+     * @return entries
+     */
+    @NotNull
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns analysed entry for the given PSI element.
+     *
+     * @param element entry element
+     * @return analysed entry or <code>null</code> if element does not belong to the file
+     */
+    @Nullable
+    public Entry getEntry(@NotNull IgnoreEntry element) {
+        return entriesMap.get(element);
+    }
+
+    /**
+     * Checks if given syntax element has a known value.
+     *
+     * @param element syntax element
+     * @return syntax value is valid
+     */
+    public boolean isSyntaxValid(@NotNull IgnoreSyntax element) {
+        return syntaxes.get(element) != null;
+    }
+
+    /** Single analysed entry. */
+    public static class Entry {
+        /** Entry PSI element. */
+        @NotNull
+        private final IgnoreEntry element;
+
+        /** Entry text. */
+        @NotNull
+        private final String text;
+
+        /** Entry text with escaped characters unescaped. */
+        @NotNull
+        private final String unescapedText;
+
+        /** Entry value without negation sign. */
+        @NotNull
+        private final String value;
+
+        /** Entry is negated. */
+        private final boolean negated;
+
+        /** Syntax resolved for the entry. */
+        @NotNull
+        private final IgnoreBundle.Syntax syntax;
+
+        /** Compiled entry rule. */
+        @NotNull
+        private final CompiledRule rule;
+
+        /**
+         * Constructor.
+         *
+         * @param element entry element
+         * @param syntax  syntax resolved for the entry
+         */
+        private Entry(@NotNull IgnoreEntry element, @NotNull IgnoreBundle.Syntax syntax) {
+            this.element = element;
+            this.text = element.getText();
+            this.unescapedText = ESCAPED.matcher(text).replaceAll("$1");
+            this.negated = element.isNegated();
+            this.value = negated ? text.substring(1) : text;
+            this.syntax = syntax;
+            this.rule = Glob.compile(value, syntax, false);
+        }
+
+        /**
+         * Returns entry PSI element.
+         *
+         * @return element
+         */
+        @NotNull
+        public IgnoreEntry getElement() {
+            return element;
+        }
+
+        /**
+         * Returns entry text.
+         *
+         * @return text
+         */
+        @NotNull
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns entry text with escaped characters unescaped.
+         *
+         * @return unescaped text
+         */
+        @NotNull
+        public String getUnescapedText() {
+            return unescapedText;
+        }
+
+        /**
+         * Returns entry value without leading `!` if entry is negated.
+         *
+         * @return value
+         */
+        @NotNull
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Checks if entry is negated.
+         *
+         * @return is negated
+         */
+        public boolean isNegated() {
+            return negated;
+        }
+
+        /**
+         * Returns syntax resolved for the entry.
+         *
+         * @return syntax
+         */
+        @NotNull
+        public IgnoreBundle.Syntax getSyntax() {
+            return syntax;
+        }
+
+        /**
+         * Returns compiled entry rule.
+         *
+         * @return compiled rule
+         */
+        @NotNull
+        public CompiledRule getRule() {
+            return rule;
+        }
+    }
+}
@@ -27,14 +27,15 @@ package mobi.hsz.idea.gitignore.codeInspection;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.psi.IgnoreEntry;
+import mobi.hsz.idea.gitignore.psi.IgnoreFile;
 import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
+import mobi.hsz.idea.gitignore.util.CompiledRule;
 import mobi.hsz.idea.gitignore.util.Glob;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Inspection tool that checks if entry has correct form in specific according to the specific {@link
@@ -53,23 +54,33 @@ public class IgnoreIncorrectEntryInspection extends LocalInspectionTool {
      */
     @NotNull
     @Override
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, boolean isOnTheFly) {
         return new IgnoreVisitor() {
             @Override
             public void visitEntry(@NotNull IgnoreEntry entry) {
-                String regex = entry.getText();
-                if (IgnoreBundle.Syntax.GLOB.equals(entry.getSyntax())) {
-                    regex = Glob.createRegex(regex, false);
-                }
-
-                try {
-                    Pattern.compile(regex);
-                } catch (PatternSyntaxException e) {
+                final IgnoreFileAnalysis.Entry analysed = getAnalysedEntry(entry);
+                final CompiledRule rule = analysed != null ? analysed.getRule() :
+                        Glob.compile(entry.getValue(), entry.getSyntax(), false);
+                if (!rule.isValid()) {
                     holder.registerProblem(entry,
-                            IgnoreBundle.message("codeInspection.incorrectEntry.message", e.getDescription()));
+                            IgnoreBundle.message("codeInspection.incorrectEntry.message", rule.getError()));
                 }
             }
         };
     }
+
+    /**
+     * Returns entry from the cached {@link IgnoreFileAnalysis} of the containing file.
+     *
+     * @param entry entry to look for
+     * @return analysed entry or <code>null</code> if entry does not belong to the {@link IgnoreFile}
+     */
+    @Nullable
+    private static IgnoreFileAnalysis.Entry getAnalysedEntry(@NotNull IgnoreEntry entry) {
+        final PsiFile file = entry.getContainingFile();
+        if (!(file instanceof IgnoreFile)) {
+            return null;
+        }
+        return IgnoreFileAnalysis.getInstance((IgnoreFile) file).getEntry(entry);
+    }
 }
@@ -32,7 +32,6 @@ import com.intellij.psi.PsiFile;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.psi.IgnoreEntry;
 import mobi.hsz.idea.gitignore.psi.IgnoreFile;
-import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -62,17 +61,13 @@ public class IgnoreRelativeEntryInspection extends LocalInspectionTool {
 
         final ProblemsHolder problemsHolder = new ProblemsHolder(manager, file, isOnTheFly);
 
-        file.acceptChildren(new IgnoreVisitor() {
-            @Override
-            public void visitEntry(@NotNull IgnoreEntry entry) {
-                String path = entry.getText().replaceAll("\\\\(.)", "$1");
-                if (path.contains("./")) {
-                    problemsHolder.registerProblem(entry, IgnoreBundle.message("codeInspection.relativeEntry.message"),
-                            new IgnoreRelativeEntryFix(entry));
-                }
-                super.visitEntry(entry);
+        for (IgnoreFileAnalysis.Entry entry : IgnoreFileAnalysis.getInstance((IgnoreFile) file).getEntries()) {
+            if (entry.getUnescapedText().contains("./")) {
+                final IgnoreEntry element = entry.getElement();
+                problemsHolder.registerProblem(element, IgnoreBundle.message("codeInspection.relativeEntry.message"),
+                        new IgnoreRelativeEntryFix(element));
             }
-        });
+        }
 
         return problemsHolder.getResultsArray();
     }
@@ -29,6 +29,7 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElementVisitor;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
+import mobi.hsz.idea.gitignore.psi.IgnoreFile;
 import mobi.hsz.idea.gitignore.psi.IgnoreSyntax;
 import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
 import org.jetbrains.annotations.NotNull;
@@ -58,11 +59,9 @@ public class IgnoreSyntaxEntryInspection extends LocalInspectionTool {
                     return;
                 }
 
-                String value = syntax.getValue().getText();
-                for (IgnoreBundle.Syntax s : IgnoreBundle.Syntax.values()) {
-                    if (s.toString().equals(value)) {
-                        return;
-                    }
+                final IgnoreFile file = (IgnoreFile) syntax.getContainingFile();
+                if (IgnoreFileAnalysis.getInstance(file).isSyntaxValid(syntax)) {
+                    return;
                 }
 
                 holder.registerProblem(syntax, IgnoreBundle.message("codeInspection.syntaxEntry.message"),
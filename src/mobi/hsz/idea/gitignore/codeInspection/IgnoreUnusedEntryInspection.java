@@ -40,8 +40,8 @@ import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
 import mobi.hsz.idea.gitignore.util.Glob;
 import mobi.hsz.idea.gitignore.util.Utils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
 import java.util.regex.Pattern;
 
 /**
@@ -64,32 +64,25 @@ public class IgnoreUnusedEntryInspection extends LocalInspectionTool {
         final Project project = holder.getProject();
         final FilesIndexCacheProjectComponent cache = FilesIndexCacheProjectComponent.getInstance(project);
         final IgnoreManager manager = IgnoreManager.getInstance(project);
+        final PsiFile ignoreFile = holder.getFile();
+        final VirtualFile virtualFile = ignoreFile.getVirtualFile();
+        final VirtualFile contextDirectory = virtualFile != null && ignoreFile instanceof IgnoreFile &&
+                !((IgnoreFile) ignoreFile).isOuter() && Utils.isInProject(virtualFile, project) ?
+                virtualFile.getParent() : null;
+        final VirtualFile moduleRoot = virtualFile != null ? Utils.getModuleRootForFile(virtualFile, project) : null;
 
         return new IgnoreVisitor() {
             @Override
             public void visitEntry(@NotNull IgnoreEntry entry) {
-                PsiReference[] references = entry.getReferences();
-                boolean resolved = true;
-                int previous = Integer.MAX_VALUE;
-                for (PsiReference reference : references) {
-                    ProgressManager.checkCanceled();
-                    if (reference instanceof FileReferenceOwner) {
-                        PsiPolyVariantReference fileReference = (PsiPolyVariantReference) reference;
-                        ResolveResult[] result = fileReference.multiResolve(false);
-                        resolved = result.length > 0 || (previous > 0 && reference.getCanonicalText().endsWith("/*"));
-                        previous = result.length;
-                    }
-                    if (!resolved) {
-                        break;
-                    }
-                }
+                final Pattern pattern = Glob.createPattern(entry);
+                final boolean resolved = pattern != null && contextDirectory != null ?
+                        cache.hasFilesForPattern(project, contextDirectory, pattern, manager.getMatcher()) :
+                        resolveReferences(entry);
 
                 if (!resolved) {
-                    if (!isEntryExcluded(entry, holder.getProject())) {
+                    if (!isEntryExcluded(pattern)) {
                         final PsiDirectory directory = ((IgnoreFile) entry.getParent()).getContainingDirectory();
-                        final VirtualFile file = directory != null
-                                ? directory.getVirtualFile().findFileByRelativePath(entry.getText())
-                                : null;
+                        final VirtualFile file = directory != null ? findFile(directory, entry.getText()) : null;
 
                         if (file == null) {
                             holder.registerProblem(
@@ -105,38 +98,61 @@ public class IgnoreUnusedEntryInspection extends LocalInspectionTool {
             }
 
             /**
-             * Checks if given {@link IgnoreEntry} is excluded in the current {@link Project}.
+             * Checks if any file is related to the given {@link IgnoreEntry} by resolving its references.
+             * Used when the entry cannot be checked against the {@link com.intellij.psi.search.FilenameIndex}.
              *
-             * @param entry   Gitignore entry
-             * @param project current project
-             * @return entry is excluded in current project
+             * @param entry Gitignore entry
+             * @return entry is used
              */
-            private boolean isEntryExcluded(@NotNull IgnoreEntry entry, @NotNull Project project) {
-                final Pattern pattern = Glob.createPattern(entry);
-                if (pattern == null) {
-                    return false;
+            private boolean resolveReferences(@NotNull IgnoreEntry entry) {
+                boolean resolved = true;
+                int previous = Integer.MAX_VALUE;
+                for (PsiReference reference : entry.getReferences()) {
+                    ProgressManager.checkCanceled();
+                    if (reference instanceof FileReferenceOwner) {
+                        PsiPolyVariantReference fileReference = (PsiPolyVariantReference) reference;
+                        ResolveResult[] result = fileReference.multiResolve(false);
+                        resolved = result.length > 0 || (previous > 0 && reference.getCanonicalText().endsWith("/*"));
+                        previous = result.length;
+                    }
+                    if (!resolved) {
+                        break;
+                    }
                 }
+                return resolved;
+            }
 
-                final VirtualFile moduleRoot = Utils.getModuleRootForFile(
-                        entry.getContainingFile().getVirtualFile(),
-                        project
-                );
-                final Collection<VirtualFile> files = cache.getFilesForPattern(project, pattern);
+            /**
+             * Finds file in the given directory using entry's text as a relative path. Entries ending with
+             * <code>/*</code> point to the parent path, so an empty directory is still treated as used.
+             *
+             * @param directory context directory
+             * @param text      entry's text
+             * @return found file or <code>null</code>
+             */
+            @Nullable
+            private VirtualFile findFile(@NotNull PsiDirectory directory, @NotNull String text) {
+                final String path = text.endsWith("/*") ? text.substring(0, text.length() - 2) : text;
+                return path.isEmpty() ? null : directory.getVirtualFile().findFileByRelativePath(path);
+            }
 
-                if (moduleRoot == null) {
+            /**
+             * Checks if given {@link Pattern} matches any of the excluded roots in the current {@link Project}.
+             * Excluded directories are not indexed, so entries that point to them cannot be resolved.
+             *
+             * @param pattern entry pattern
+             * @return entry is excluded in current project
+             */
+            private boolean isEntryExcluded(@Nullable Pattern pattern) {
+                if (pattern == null || moduleRoot == null) {
                     return false;
                 }
 
                 for (final VirtualFile root : Utils.getExcludedRoots(project)) {
-                    for (VirtualFile file : files) {
-                        ProgressManager.checkCanceled();
-                        if (!Utils.isUnder(file, root)) {
-                            continue;
-                        }
-                        String path = Utils.getRelativePath(moduleRoot, root);
-                        if (manager.getMatcher().match(pattern, path)) {
-                            return false;
-                        }
+                    ProgressManager.checkCanceled();
+                    final String path = Utils.getRelativePath(moduleRoot, root);
+                    if (manager.getMatcher().match(pattern, path)) {
+                        return true;
                     }
                 }
 
@@ -25,10 +25,20 @@
 package mobi.hsz.idea.gitignore.daemon;
 
 import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vcs.changes.ChangeListAdapter;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.ui.EditorNotificationPanel;
@@ -42,6 +52,7 @@ import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
 import mobi.hsz.idea.gitignore.lang.kind.GitLanguage;
 import mobi.hsz.idea.gitignore.settings.IgnoreSettings;
 import mobi.hsz.idea.gitignore.util.Constants;
+import mobi.hsz.idea.gitignore.util.Debounced;
 import mobi.hsz.idea.gitignore.util.Properties;
 import mobi.hsz.idea.gitignore.util.Utils;
 import mobi.hsz.idea.gitignore.util.exec.ExternalExec;
@@ -49,7 +60,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -72,21 +82,76 @@ public class AddUnversionedFilesNotificationProvider extends EditorNotifications
     @NotNull
     private final IgnoreSettings settings;
 
-    /** List of unignored files. */
+    /** Lists of unignored files obtained for the Gitignore files. */
     @NotNull
-    private final List<String> unignoredFiles = new ArrayList<>();
+    private final Map<VirtualFile, List<String>> unignoredFiles = ContainerUtil.createConcurrentWeakMap();
+
+    /** Progress indicators of the unignored files lookups in progress. */
+    @NotNull
+    private final Map<VirtualFile, ProgressIndicator> pendingFiles = ContainerUtil.newConcurrentMap();
 
     /** Map to obtain if file was handled. */
     private final Map<VirtualFile, Boolean> handledMap = ContainerUtil.createWeakKeyWeakValueMap();
 
     /**
-     * Builds a new instance of {@link AddUnversionedFilesNotificationProvider}.
+     * Refreshes lists of unignored files of the Gitignore files opened in the editor, wrapped with {@link Debounced}.
+     * Files that are no longer opened are forgotten and listed again when shown next time.
+     */
+    @NotNull
+    private final Debounced<Project> debouncedRefresh = new Debounced<Project>(1000) {
+        @Override
+        protected void task(@Nullable Project project) {
+            if (project == null || project.isDisposed() || !isEnabled(project)) {
+                return;
+            }
+
+            final FileEditorManager fileEditorManager = FileEditorManager.getInstance(project);
+            for (VirtualFile file : unignoredFiles.keySet()) {
+                if (!fileEditorManager.isFileOpen(file)) {
+                    unignoredFiles.remove(file);
+                    final ProgressIndicator indicator = pendingFiles.remove(file);
+                    if (indicator != null) {
+                        indicator.cancel();
+                    }
+                } else if (handledMap.get(file) == null) {
+                    requestUnignoredFiles(project, file);
+                }
+            }
+        }
+    };
+
+    /**
+     * Builds a new instance of {@link AddUnversionedFilesNotificationProvider}. Lists of unignored files are refreshed
+     * only on the VFS and VCS changes.
      *
+     * @param project       current project
      * @param notifications notifications component
      */
-    public AddUnversionedFilesNotificationProvider(@NotNull EditorNotifications notifications) {
+    public AddUnversionedFilesNotificationProvider(@NotNull Project project,
+                                                   @NotNull EditorNotifications notifications) {
         this.notifications = notifications;
         this.settings = IgnoreSettings.getInstance();
+
+        project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                if (ContainerUtil.exists(events, event -> !(event instanceof VFileContentChangeEvent) ||
+                        IgnoreBundle.obtainLanguage(((VFileContentChangeEvent) event).getFile()) != null)) {
+                    debouncedRefresh.run(project);
+                }
+            }
+        });
+        ChangeListManager.getInstance(project).addChangeListListener(new ChangeListAdapter() {
+            @Override
+            public void changeListUpdateDone() {
+                debouncedRefresh.run(project);
+            }
+        }, project);
+        Disposer.register(project, () -> {
+            for (ProgressIndicator indicator : pendingFiles.values()) {
+                indicator.cancel();
+            }
+        });
     }
 
     /**
@@ -102,7 +167,9 @@ public class AddUnversionedFilesNotificationProvider extends EditorNotifications
 
     /**
      * Creates notification panel for given file and checks if is allowed to show the notification.
-     * Only {@link GitLanguage} is currently supported.
+     * Only {@link GitLanguage} is currently supported. Unignored files are listed in the background when the file is
+     * shown for the first time and the last known list is used later, so git process never blocks the notifications
+     * update and is not started again by the update it triggered.
      *
      * @param file       current file
      * @param fileEditor current file editor
@@ -112,12 +179,7 @@ public class AddUnversionedFilesNotificationProvider extends EditorNotifications
     @Override
     public EditorNotificationPanel createNotificationPanel(@NotNull VirtualFile file, @NotNull FileEditor fileEditor,
                                                            @NotNull Project project) {
-        // Break if feature is disabled in the Settings
-        if (!settings.isAddUnversionedFiles()) {
-            return null;
-        }
-        // Break if user canceled previously this notification
-        if (Properties.isAddUnversionedFiles(project)) {
+        if (!isEnabled(project)) {
             return null;
         }
 
@@ -130,22 +192,62 @@ public class AddUnversionedFilesNotificationProvider extends EditorNotifications
             return null;
         }
 
-        unignoredFiles.clear();
-        unignoredFiles.addAll(ExternalExec.getUnignoredFiles(GitLanguage.INSTANCE, project, file));
-        if (unignoredFiles.isEmpty()) {
+        final List<String> files = unignoredFiles.get(file);
+        if (files == null) {
+            requestUnignoredFiles(project, file);
             return null;
         }
+        if (files.isEmpty()) {
+            return null;
+        }
+
+        return createPanel(project, files);
+    }
+
+    /**
+     * Checks if the notification is enabled in the Settings and was not canceled previously by user.
+     *
+     * @param project current project
+     * @return notification is enabled
+     */
+    private boolean isEnabled(@NotNull Project project) {
+        return settings.isAddUnversionedFiles() && !Properties.isAddUnversionedFiles(project);
+    }
 
-        return createPanel(project);
+    /**
+     * Lists unignored files for the given file in the background. Lookup already in progress is canceled, because it
+     * may not see the latest changes. Notifications are updated if the list changed.
+     *
+     * @param project current project
+     * @param file    current file
+     */
+    private void requestUnignoredFiles(@NotNull Project project, @NotNull VirtualFile file) {
+        final ProgressIndicator indicator = new ProgressIndicatorBase();
+        final ProgressIndicator previous = pendingFiles.put(file, indicator);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        ExternalExec.getUnignoredFiles(GitLanguage.INSTANCE, project, file, indicator).whenComplete((result, error) -> {
+            pendingFiles.remove(file, indicator);
+            if (result == null || !result.isSuccess() || indicator.isCanceled() || project.isDisposed()) {
+                return;
+            }
+            final List<String> files = ContainerUtil.notNullize(result.getOutput());
+            if (!files.equals(unignoredFiles.put(file, files))) {
+                notifications.updateNotifications(file);
+            }
+        });
     }
 
     /**
      * Creates notification panel.
      *
      * @param project current project
+     * @param files   unignored files to add
      * @return notification panel
      */
-    private EditorNotificationPanel createPanel(@NotNull final Project project) {
+    private EditorNotificationPanel createPanel(@NotNull final Project project, @NotNull final List<String> files) {
         final EditorNotificationPanel panel = new EditorNotificationPanel();
         final IgnoreFileType fileType = GitFileType.INSTANCE;
         panel.setText(IgnoreBundle.message("daemon.addUnversionedFiles"));
@@ -157,7 +259,7 @@ public class AddUnversionedFilesNotificationProvider extends EditorNotifications
             final VirtualFile virtualFile = projectDir.findChild(GitLanguage.INSTANCE.getFilename());
             final PsiFile file = virtualFile != null ? PsiManager.getInstance(project).findFile(virtualFile) : null;
             if (file != null) {
-                final String content = StringUtil.join(unignoredFiles, Constants.NEWLINE);
+                final String content = StringUtil.join(files, Constants.NEWLINE);
 
                 try {
                     new AppendFileCommandAction(project, file, content, true, false)
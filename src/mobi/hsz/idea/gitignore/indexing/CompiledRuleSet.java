@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.indexing;
+
+import com.intellij.util.containers.ContainerUtil;
+import mobi.hsz.idea.gitignore.util.MatcherUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled rules of a single ignore file. Rule sets are cached at the application level by the content of the
+ * rules, so identical ignore files (global excludes, templates, vendored copies) share one compiled instance across
+ * all the projects and modules. Values are softly referenced and may be released under memory pressure.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public final class CompiledRuleSet {
+    /** Cache of the compiled rule sets mapped by the rules content. */
+    private static final ConcurrentMap<Key, CompiledRuleSet> CACHE = ContainerUtil.createConcurrentSoftValueMap();
+
+    /** Compiled patterns, <code>null</code> for invalid rules. */
+    @NotNull
+    private final Pattern[] patterns;
+
+    /** Negation flags of the rules. */
+    @NotNull
+    private final boolean[] negated;
+
+    /**
+     * Constructor.
+     *
+     * @param items rules to compile
+     */
+    private CompiledRuleSet(@NotNull List<IgnoreEntryOccurrence.Item> items) {
+        final int size = items.size();
+        this.patterns = new Pattern[size];
+        this.negated = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            final IgnoreEntryOccurrence.Item item = items.get(i);
+            patterns[i] = item.getPattern();
+            negated[i] = item.isNegated();
+        }
+    }
+
+    /**
+     * Returns shared compiled rule set for the given rules.
+     *
+     * @param contentHash hash of the rules
+     * @param items       rules to compile
+     * @return compiled rule set
+     */
+    @NotNull
+    public static CompiledRuleSet get(int contentHash, @NotNull List<IgnoreEntryOccurrence.Item> items) {
+        final Key key = new Key(contentHash, items);
+        CompiledRuleSet ruleSet = CACHE.get(key);
+        if (ruleSet == null) {
+            ruleSet = new CompiledRuleSet(items);
+            final CompiledRuleSet previous = CACHE.putIfAbsent(key, ruleSet);
+            if (previous != null) {
+                ruleSet = previous;
+            }
+        }
+        return ruleSet;
+    }
+
+    /** Clears the cache of compiled rule sets. */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Finds the last rule that matches given path. As the last matching rule decides about the path status,
+     * rules are checked from the end and the search stops on the first match.
+     *
+     * @param matcher matcher instance
+     * @param path    relative path to check
+     * @return index of the matching rule or <code>-1</code> if no rule matches
+     */
+    public int findLastMatch(@NotNull MatcherUtil matcher, @NotNull String path) {
+        for (int i = patterns.length - 1; i >= 0; i--) {
+            if (matcher.match(patterns[i], path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if rule with the given index is negated.
+     *
+     * @param index rule index
+     * @return rule is negated
+     */
+    public boolean isNegated(int index) {
+        return negated[index];
+    }
+
+    /**
+     * Returns count of the rules.
+     *
+     * @return rules count
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /** Cache key that compares rules content. */
+    private static final class Key {
+        /** Hash of the rules. */
+        private final int hash;
+
+        /** Rules. */
+        @NotNull
+        private final List<IgnoreEntryOccurrence.Item> items;
+
+        /**
+         * Constructor.
+         *
+         * @param hash  hash of the rules
+         * @param items rules
+         */
+        private Key(int hash, @NotNull List<IgnoreEntryOccurrence.Item> items) {
+            this.hash = hash;
+            this.items = items;
+        }
+
+        /**
+         * Returns hash of the rules.
+         *
+         * @return hash
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * Checks if keys contain the same rules.
+         *
+         * @param obj to check
+         * @return keys are equal
+         */
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            return obj instanceof Key && hash == ((Key) obj).hash && items.equals(((Key) obj).items);
+        }
+    }
+}
@@ -24,10 +24,13 @@
 
 package mobi.hsz.idea.gitignore.indexing;
 
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWithId;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.IndexableSetContributor;
+import gnu.trove.TIntHashSet;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.IgnoreManager;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
@@ -35,13 +38,15 @@ import mobi.hsz.idea.gitignore.file.type.kind.GitExcludeFileType;
 import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * IndexedRootsProvider implementation that provides additional paths to index - like external/global ignore files.
+ * Additional files are kept per project in an immutable {@link Snapshot}. Snapshot is computed once, published
+ * atomically and refreshed in the background after {@link #invalidateCache(Project)}, so lookups never allocate.
+ * Each refresh is stamped with a generation, so a snapshot computed for an older request never replaces a newer one.
  *
  * @author Jakub Chrzanowski <jakub@hsz.mobi>
  * @since 2.0
@@ -50,8 +55,11 @@ public class ExternalIndexableSetContributor extends IndexableSetContributor {
     /** Empty set. */
     private static final Set<VirtualFile> EMPTY_SET = Collections.emptySet();
 
-    /** Cached additional paths set. */
-    private static final Map<Project, HashSet<VirtualFile>> CACHE = ContainerUtil.newConcurrentMap();
+    /** Cached additional files snapshots. */
+    private static final ConcurrentMap<Project, Snapshot> CACHE = ContainerUtil.newConcurrentMap();
+
+    /** Generation counter of the computed snapshots. */
+    private static final AtomicLong GENERATION = new AtomicLong();
 
     /**
      * Returns additional files located outside of the current project that should be indexed.
@@ -60,33 +68,62 @@ public class ExternalIndexableSetContributor extends IndexableSetContributor {
      * @return additional files
      */
     @NotNull
-    public static HashSet<VirtualFile> getAdditionalFiles(@NotNull Project project) {
-        final HashSet<VirtualFile> files = new HashSet<>();
-
-        if (CACHE.containsKey(project)) {
-            files.addAll(ContainerUtil.filter(CACHE.get(project), VirtualFile::isValid));
-        } else {
-            for (IgnoreLanguage language : IgnoreBundle.LANGUAGES) {
-                final IgnoreFileType fileType = language.getFileType();
-                if (language.isOuterFileSupported()) {
-                    for (VirtualFile file : language.getOuterFiles(project, true)) {
-                        if (file == null || !file.isValid()) {
-                            continue;
-                        }
-                        if (!(fileType instanceof GitExcludeFileType)
-                            && !(file.getFileType() instanceof IgnoreFileType)
-                            && !file.getFileType().equals(fileType)) {
-                            IgnoreManager.associateFileType(file.getName(), fileType);
-                        }
-
-                        files.add(file);
+    public static Set<VirtualFile> getAdditionalFiles(@NotNull Project project) {
+        return getSnapshot(project).getFiles();
+    }
+
+    /**
+     * Returns current snapshot of the additional files. Snapshot is computed synchronously only if there is no
+     * snapshot published for the project yet.
+     *
+     * @param project current project
+     * @return additional files snapshot
+     */
+    @NotNull
+    public static Snapshot getSnapshot(@NotNull Project project) {
+        Snapshot snapshot = CACHE.get(project);
+        if (snapshot == null) {
+            snapshot = compute(project, GENERATION.get());
+            final Snapshot previous = CACHE.putIfAbsent(project, snapshot);
+            if (previous != null) {
+                return previous;
+            }
+            snapshot.associateFileTypes();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Computes additional files snapshot for the given project.
+     *
+     * @param project    current project
+     * @param generation generation of the request
+     * @return new snapshot
+     */
+    @NotNull
+    private static Snapshot compute(@NotNull Project project, long generation) {
+        final Set<VirtualFile> files = new HashSet<>();
+        final Map<String, IgnoreFileType> associations = new HashMap<>();
+
+        for (IgnoreLanguage language : IgnoreBundle.LANGUAGES) {
+            final IgnoreFileType fileType = language.getFileType();
+            if (language.isOuterFileSupported()) {
+                for (VirtualFile file : language.getOuterFiles(project, true)) {
+                    if (file == null || !file.isValid()) {
+                        continue;
+                    }
+                    if (!(fileType instanceof GitExcludeFileType)
+                        && !(file.getFileType() instanceof IgnoreFileType)
+                        && !file.getFileType().equals(fileType)) {
+                        associations.put(file.getName(), fileType);
                     }
+
+                    files.add(file);
                 }
             }
         }
 
-        CACHE.put(project, files);
-        return files;
+        return new Snapshot(generation, files, associations);
     }
 
     /**
@@ -97,7 +134,7 @@ public class ExternalIndexableSetContributor extends IndexableSetContributor {
     @NotNull
     @Override
     public Set<VirtualFile> getAdditionalProjectRootsToIndex(@NotNull Project project) {
-        return getAdditionalFiles(project);
+        return getSnapshot(project).getValidFiles();
     }
 
     /**
@@ -118,14 +155,130 @@ public class ExternalIndexableSetContributor extends IndexableSetContributor {
                 CACHE.remove(project);
             }
         }
+        IgnoreSearchScope.invalidateDisposedProjects();
     }
 
     /**
-     * Removes cached files for the given project.
+     * Removes cached files of the given project without computing them again. Used when the project is closed or
+     * the manager is disabled - snapshot is computed on the next access.
      *
      * @param project current project
      */
-    public static void invalidateCache(@NotNull Project project) {
+    public static void removeCache(@NotNull Project project) {
         CACHE.remove(project);
+        IgnoreSearchScope.invalidate(project);
+    }
+
+    /**
+     * Refreshes cached files for the given project in the background. Current snapshot is used until the new one is
+     * published, then {@link IgnoreSearchScope} is invalidated. Snapshot is published only if no newer request was
+     * published in the meantime and the project is still cached.
+     *
+     * @param project current project
+     */
+    public static void invalidateCache(@NotNull Project project) {
+        if (project.isDisposed() || !CACHE.containsKey(project)) {
+            IgnoreSearchScope.invalidate(project);
+            return;
+        }
+
+        final long generation = GENERATION.incrementAndGet();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+
+            final Snapshot snapshot = compute(project, generation);
+            final Snapshot published = CACHE.computeIfPresent(
+                    project,
+                    (key, current) -> current.generation < generation && !key.isDisposed() ? snapshot : current
+            );
+            if (published == snapshot) {
+                IgnoreSearchScope.invalidate(project);
+                snapshot.associateFileTypes();
+            }
+        });
+    }
+
+    /** Immutable set of the additional files with ids lookup. */
+    public static final class Snapshot {
+        /** Generation of the request the snapshot was computed for. */
+        private final long generation;
+
+        /** Additional files. */
+        @NotNull
+        private final Set<VirtualFile> files;
+
+        /** Ids of the additional files. */
+        @NotNull
+        private final TIntHashSet ids = new TIntHashSet();
+
+        /** Outer files names that have to be associated with the ignore file types. */
+        @NotNull
+        private final Map<String, IgnoreFileType> associations;
+
+        /**
+         * Constructor.
+         *
+         * @param generation   generation of the request
+         * @param files        additional files
+         * @param associations file names to associate with the ignore file types
+         */
+        private Snapshot(long generation, @NotNull Set<VirtualFile> files,
+                         @NotNull Map<String, IgnoreFileType> associations) {
+            this.generation = generation;
+            this.files = Collections.unmodifiableSet(files);
+            this.associations = associations;
+            for (VirtualFile file : files) {
+                if (file instanceof VirtualFileWithId) {
+                    ids.add(((VirtualFileWithId) file).getId());
+                }
+            }
+        }
+
+        /**
+         * Returns additional files.
+         *
+         * @return additional files
+         */
+        @NotNull
+        public Set<VirtualFile> getFiles() {
+            return files;
+        }
+
+        /**
+         * Returns additional files that are still valid. Files set is copied only if any file has been invalidated.
+         *
+         * @return valid additional files
+         */
+        @NotNull
+        public Set<VirtualFile> getValidFiles() {
+            for (VirtualFile file : files) {
+                if (!file.isValid()) {
+                    return new HashSet<>(ContainerUtil.filter(files, VirtualFile::isValid));
+                }
+            }
+            return files;
+        }
+
+        /**
+         * Checks if given file is one of the additional files.
+         *
+         * @param file file to check
+         * @return file is additional
+         */
+        public boolean contains(@NotNull VirtualFile file) {
+            if (file instanceof VirtualFileWithId) {
+                return ids.contains(((VirtualFileWithId) file).getId());
+            }
+            return files.contains(file);
+        }
+
+        /** Associates outer files names with the ignore file types. Invoked once the snapshot is published. */
+        private void associateFileTypes() {
+            for (Map.Entry<String, IgnoreFileType> entry : associations.entrySet()) {
+                IgnoreManager.associateFileType(entry.getKey(), entry.getValue());
+            }
+        }
     }
 }
@@ -24,13 +24,16 @@
 
 package mobi.hsz.idea.gitignore.indexing;
 
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import com.intellij.openapi.vfs.newvfs.persistent.PersistentFS;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.ImmutableList;
-import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.builder.HashCodeBuilder;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.util.Glob;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -39,52 +42,82 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Entry containing information about the {@link VirtualFile} instance of the ignore file mapped with the collection
- * of ignore entries for better performance. Class is used for indexing.
+ * of ignore entries for better performance. Class is used for indexing. Instances are immutable, the content hash is
+ * computed once and the ignore file is resolved when the entry is created or read from the index.
  *
  * @author Jakub Chrzanowski <jakub@hsz.mobi>
  * @since 2.0
  */
-public class IgnoreEntryOccurrence implements Serializable {
-    /** Current ignore file path. */
+public final class IgnoreEntryOccurrence implements Serializable {
+    /** Version of the serialized format. Has to be increased if the format has been changed. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Id of the ignore file or <code>0</code> if file has no id. */
+    private final int fileId;
+
+    /** Current ignore file URL, used only if file has no id. */
     @NotNull
     private final String url;
 
     /** Collection of ignore entries. */
     @NotNull
-    private final ImmutableList<Pair<String, Boolean>> items;
+    private final ImmutableList<Item> items;
+
+    /** Precomputed hash of the ignore rules. */
+    private final int contentHash;
 
-    /** Current ignore file. */
+    /** Precomputed content hash. */
+    private final int hash;
+
+    /** Compiled rules shared with all the occurrences of the same content. */
     @Nullable
-    private VirtualFile file;
+    private volatile transient CompiledRuleSet ruleSet;
+
+    /** Resolved ignore file. Resolved again if it has been invalidated. */
+    @Nullable
+    private volatile transient VirtualFile file;
 
     /**
      * Constructor.
      *
-     * @param url   entry URL
+     * @param file  ignore file
      * @param items parsed entry items
      */
-    public IgnoreEntryOccurrence(@NotNull String url, @NotNull ArrayList<Pair<String, Boolean>> items) {
-        this.url = url;
+    public IgnoreEntryOccurrence(@NotNull VirtualFile file, @NotNull List<Item> items) {
+        this(file instanceof VirtualFileWithId ? ((VirtualFileWithId) file).getId() : 0, file.getUrl(), items, file);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param fileId ignore file id or <code>0</code>
+     * @param url    ignore file URL used if there is no file id
+     * @param items  parsed entry items
+     * @param file   ignore file or <code>null</code> if it has to be resolved
+     */
+    private IgnoreEntryOccurrence(int fileId, @NotNull String url, @NotNull List<Item> items,
+                                  @Nullable VirtualFile file) {
+        this.fileId = fileId;
+        this.url = fileId > 0 ? "" : url;
         this.items = ContainerUtil.immutableList(items);
+        this.contentHash = this.items.hashCode();
+        this.hash = 31 * (31 * fileId + this.url.hashCode()) + contentHash;
+        this.file = file != null ? file : resolveFile();
     }
 
     /**
-     * Calculates hashCode with {@link #url} and {@link #items} hashCodes.
+     * Returns precomputed hashCode of {@link #fileId}, {@link #url} and {@link #items}.
      *
      * @return entry hashCode
      */
     @Override
     public int hashCode() {
-        HashCodeBuilder builder = new HashCodeBuilder().append(url);
-
-        for (Pair<String, Boolean> item : items) {
-            builder.append(item.first).append(item.second);
-        }
-
-        return builder.toHashCode();
+        return hash;
     }
 
     /**
@@ -100,30 +133,38 @@ public class IgnoreEntryOccurrence implements Serializable {
         }
 
         final IgnoreEntryOccurrence entry = (IgnoreEntryOccurrence) obj;
-        if (!url.equals(entry.url) || items.size() != entry.items.size()) {
-            return false;
-        }
-
-        for (int i = 0; i < items.size(); i++) {
-            if (!items.get(i).toString().equals(entry.items.get(i).toString())) {
-                return false;
-            }
-        }
-
-        return true;
+        return this == entry || hash == entry.hash && fileId == entry.fileId && url.equals(entry.url) &&
+                items.equals(entry.items);
     }
 
     /**
-     * Returns current {@link VirtualFile}.
+     * Returns current {@link VirtualFile}. File resolved earlier is returned as long as it is valid.
      *
      * @return current file
      */
     @Nullable
     public VirtualFile getFile() {
-        if (file == null && !url.isEmpty()) {
-            file = VirtualFileManager.getInstance().findFileByUrl(url);
+        VirtualFile current = file;
+        if (current == null || !current.isValid()) {
+            current = resolveFile();
+            file = current;
         }
-        return file;
+        return current;
+    }
+
+    /**
+     * Resolves ignore file using {@link #fileId} or {@link #url}.
+     *
+     * @return resolved file or <code>null</code> if it does not exist
+     */
+    @Nullable
+    private VirtualFile resolveFile() {
+        if (fileId > 0) {
+            return PersistentFS.getInstance().findFileById(fileId);
+        } else if (!url.isEmpty()) {
+            return VirtualFileManager.getInstance().findFileByUrl(url);
+        }
+        return null;
     }
 
     /**
@@ -132,24 +173,55 @@ public class IgnoreEntryOccurrence implements Serializable {
      * @return entries
      */
     @NotNull
-    public ImmutableList<Pair<String, Boolean>> getItems() {
+    public ImmutableList<Item> getItems() {
         return items;
     }
 
     /**
-     * Static helper to write given {@link IgnoreEntryOccurrence} to the output stream.
+     * Returns compiled rules of the current file. Rule set is shared with all the files of the same content.
+     *
+     * @return compiled rules
+     */
+    @NotNull
+    public CompiledRuleSet getRuleSet() {
+        CompiledRuleSet current = ruleSet;
+        if (current == null) {
+            current = CompiledRuleSet.get(contentHash, items);
+            ruleSet = current;
+        }
+        return current;
+    }
+
+    /**
+     * Static helper to write given {@link IgnoreEntryOccurrence} to the output stream. Format contains the version,
+     * file id (or URL if file has no id), variable-length items count, negation bitset and original rules with their
+     * syntax ordinals.
      *
      * @param out   output stream
      * @param entry entry to write
      * @throws IOException I/O exception
      */
-    public static synchronized void serialize(@NotNull DataOutput out, @NotNull IgnoreEntryOccurrence entry)
-            throws IOException {
-        out.writeUTF(entry.url);
-        out.writeInt(entry.items.size());
-        for (Pair<String, Boolean> item : entry.items) {
-            out.writeUTF(item.first);
-            out.writeBoolean(item.second);
+    public static void serialize(@NotNull DataOutput out, @NotNull IgnoreEntryOccurrence entry) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        DataInputOutputUtil.writeINT(out, entry.fileId);
+        if (entry.fileId <= 0) {
+            IOUtil.writeUTF(out, entry.url);
+        }
+
+        final int size = entry.items.size();
+        DataInputOutputUtil.writeINT(out, size);
+
+        final byte[] negations = new byte[(size + 7) / 8];
+        for (int i = 0; i < size; i++) {
+            if (entry.items.get(i).negated) {
+                negations[i >> 3] |= 1 << (i & 7);
+            }
+        }
+        out.write(negations);
+
+        for (Item item : entry.items) {
+            out.writeByte(item.syntax.ordinal());
+            IOUtil.writeUTF(out, item.glob);
         }
     }
 
@@ -158,21 +230,130 @@ public class IgnoreEntryOccurrence implements Serializable {
      *
      * @param in input stream
      * @return read {@link IgnoreEntryOccurrence}
+     *
+     * @throws IOException if an I/O error occurs or data was written in the unsupported format
      */
     @NotNull
-    public static synchronized IgnoreEntryOccurrence deserialize(@NotNull DataInput in) throws IOException {
-        final String url = in.readUTF();
-        final ArrayList<Pair<String, Boolean>> items = new ArrayList<>();
-
-        if (!StringUtils.isEmpty(url)) {
-            final int size = in.readInt();
-            for (int i = 0; i < size; i++) {
-                String pattern = in.readUTF();
-                Boolean isNegated = in.readBoolean();
-                items.add(Pair.create(pattern, isNegated));
+    public static IgnoreEntryOccurrence deserialize(@NotNull DataInput in) throws IOException {
+        final int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported IgnoreEntryOccurrence format version: " + version);
+        }
+
+        final int fileId = DataInputOutputUtil.readINT(in);
+        final String url = fileId <= 0 ? IOUtil.readUTF(in) : "";
+
+        final int size = DataInputOutputUtil.readINT(in);
+        final byte[] negations = new byte[(size + 7) / 8];
+        in.readFully(negations);
+
+        final IgnoreBundle.Syntax[] syntaxes = IgnoreBundle.Syntax.values();
+        final List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int syntax = in.readByte();
+            if (syntax < 0 || syntax >= syntaxes.length) {
+                throw new IOException("Unknown syntax ordinal: " + syntax);
             }
+            final boolean negated = (negations[i >> 3] & (1 << (i & 7))) != 0;
+            items.add(new Item(IOUtil.readUTF(in), syntaxes[syntax], negated));
+        }
+
+        return new IgnoreEntryOccurrence(fileId, url, items, null);
+    }
+
+    /** Single indexed ignore entry. */
+    public static final class Item implements Serializable {
+        /** Original rule without negation sign. */
+        @NotNull
+        private final String glob;
+
+        /** Syntax of the rule. */
+        @NotNull
+        private final IgnoreBundle.Syntax syntax;
+
+        /** Rule is negated. */
+        private final boolean negated;
+
+        /** Precomputed item hash. */
+        private final int hash;
+
+        /**
+         * Constructor.
+         *
+         * @param glob    rule without negation sign
+         * @param syntax  syntax of the rule
+         * @param negated rule is negated
+         */
+        public Item(@NotNull String glob, @NotNull IgnoreBundle.Syntax syntax, boolean negated) {
+            this.glob = glob;
+            this.syntax = syntax;
+            this.negated = negated;
+            this.hash = 31 * (31 * glob.hashCode() + syntax.ordinal()) + (negated ? 1 : 0);
+        }
+
+        /**
+         * Returns original rule without negation sign.
+         *
+         * @return rule
+         */
+        @NotNull
+        public String getGlob() {
+            return glob;
+        }
+
+        /**
+         * Returns syntax of the rule.
+         *
+         * @return syntax
+         */
+        @NotNull
+        public IgnoreBundle.Syntax getSyntax() {
+            return syntax;
+        }
+
+        /**
+         * Checks if rule is negated.
+         *
+         * @return rule is negated
+         */
+        public boolean isNegated() {
+            return negated;
         }
 
-        return new IgnoreEntryOccurrence(url, items);
+        /**
+         * Returns rule's {@link Pattern} from the shared compiled rules cache.
+         *
+         * @return pattern or <code>null</code> if rule is invalid
+         */
+        @Nullable
+        public Pattern getPattern() {
+            return Glob.createPattern(glob, syntax, false);
+        }
+
+        /**
+         * Returns precomputed hashCode of all the item fields.
+         *
+         * @return item hashCode
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * Checks if given object is equal to current {@link Item} instance.
+         *
+         * @param obj to check
+         * @return objects are equal.
+         */
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Item)) {
+                return false;
+            }
+
+            final Item item = (Item) obj;
+            return hash == item.hash && negated == item.negated && syntax == item.syntax && glob.equals(item.glob);
+        }
     }
 }
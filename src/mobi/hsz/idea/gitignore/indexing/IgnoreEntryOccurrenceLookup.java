@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.indexing;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Lookup of the indexed {@link IgnoreEntryOccurrence} by the directory that contains ignore file. It allows to find
+ * ignore files that may apply to the given file walking only through its ancestors, instead of checking all the
+ * indexed ignore files.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class IgnoreEntryOccurrenceLookup {
+    /** Empty lookup instance. */
+    public static final IgnoreEntryOccurrenceLookup EMPTY = new IgnoreEntryOccurrenceLookup(ContainerUtil.emptyList());
+
+    /** All the occurrences with resolved files. */
+    @NotNull
+    private final List<IgnoreEntryOccurrence> occurrences;
+
+    /** Occurrences mapped by their ignore files. */
+    @NotNull
+    private final Map<VirtualFile, IgnoreEntryOccurrence> byFile = new HashMap<>();
+
+    /** Occurrences mapped by the directories that contain their ignore files. */
+    @NotNull
+    private final Map<VirtualFile, List<IgnoreEntryOccurrence>> byDirectory = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param values indexed occurrences
+     */
+    public IgnoreEntryOccurrenceLookup(@NotNull Collection<IgnoreEntryOccurrence> values) {
+        final List<IgnoreEntryOccurrence> occurrences = new ArrayList<>(values.size());
+        for (IgnoreEntryOccurrence value : values) {
+            final VirtualFile file = value.getFile();
+            if (file == null) {
+                continue;
+            }
+
+            occurrences.add(value);
+            byFile.put(file, value);
+
+            final VirtualFile directory = file.getParent();
+            if (directory != null) {
+                byDirectory.computeIfAbsent(directory, key -> new ArrayList<>(1)).add(value);
+            }
+        }
+        this.occurrences = Collections.unmodifiableList(occurrences);
+    }
+
+    /**
+     * Returns all the occurrences with resolved files.
+     *
+     * @return occurrences
+     */
+    @NotNull
+    public List<IgnoreEntryOccurrence> getAll() {
+        return occurrences;
+    }
+
+    /**
+     * Returns occurrence of the given ignore file.
+     *
+     * @param file ignore file
+     * @return occurrence or <code>null</code> if file is not indexed
+     */
+    @Nullable
+    public IgnoreEntryOccurrence getByFile(@NotNull VirtualFile file) {
+        return byFile.get(file);
+    }
+
+    /**
+     * Returns occurrences of the ignore files placed in the ancestor directories of the given file, ordered from the
+     * top-most directory to the nearest one. Cost depends only on the depth of the file.
+     *
+     * @param file file to check
+     * @return occurrences on the ancestor chain
+     */
+    @NotNull
+    public List<IgnoreEntryOccurrence> getAncestors(@NotNull VirtualFile file) {
+        if (byDirectory.isEmpty()) {
+            return ContainerUtil.emptyList();
+        }
+
+        final LinkedList<IgnoreEntryOccurrence> result = new LinkedList<>();
+        for (VirtualFile directory = file.getParent(); directory != null; directory = directory.getParent()) {
+            final List<IgnoreEntryOccurrence> values = byDirectory.get(directory);
+            if (values != null) {
+                for (int i = values.size() - 1; i >= 0; i--) {
+                    result.addFirst(values.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns count of the occurrences with resolved files.
+     *
+     * @return occurrences count
+     */
+    public int size() {
+        return occurrences.size();
+    }
+}
@@ -24,10 +24,16 @@
 
 package mobi.hsz.idea.gitignore.indexing;
 
+import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
+import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Decorator for {@link IgnoreFileType} to provide less unique hashcode when used with {@link IgnoreFilesIndex}.
  *
@@ -35,6 +41,18 @@ import org.jetbrains.annotations.Nullable;
  * @since 2.0
  */
 public class IgnoreFileTypeKey {
+    /** Keys of all the supported languages mapped by the language names. Used to read keys from the index. */
+    private static final Map<String, IgnoreFileTypeKey> KEYS;
+
+    static {
+        final Map<String, IgnoreFileTypeKey> keys = new HashMap<>();
+        for (IgnoreLanguage language : IgnoreBundle.LANGUAGES) {
+            final IgnoreFileType type = language.getFileType();
+            keys.putIfAbsent(type.getLanguageName(), new IgnoreFileTypeKey(type));
+        }
+        KEYS = Collections.unmodifiableMap(keys);
+    }
+
     /** Current file type. */
     @NotNull
     private final IgnoreFileType type;
@@ -48,6 +66,17 @@ public class IgnoreFileTypeKey {
         this.type = type;
     }
 
+    /**
+     * Returns shared key for the given language name.
+     *
+     * @param languageName name of the language
+     * @return key or <code>null</code> if language is not supported
+     */
+    @Nullable
+    public static IgnoreFileTypeKey find(@NotNull String languageName) {
+        return KEYS.get(languageName);
+    }
+
     /**
      * Returns current file type.
      *
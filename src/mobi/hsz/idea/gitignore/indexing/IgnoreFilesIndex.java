@@ -26,23 +26,15 @@ package mobi.hsz.idea.gitignore.indexing;
 
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.FileContent;
 import com.intellij.util.indexing.ID;
 import com.intellij.util.io.DataExternalizer;
-import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.IgnoreManager;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
-import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
-import mobi.hsz.idea.gitignore.psi.IgnoreEntry;
-import mobi.hsz.idea.gitignore.psi.IgnoreFile;
-import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
-import mobi.hsz.idea.gitignore.util.Glob;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.DataInput;
@@ -65,7 +57,7 @@ public class IgnoreFilesIndex extends AbstractIgnoreFilesIndex<IgnoreFileTypeKey
     public static final ID<IgnoreFileTypeKey, IgnoreEntryOccurrence> KEY = ID.create("IgnoreFilesIndex");
 
     /** Current indexer version. Has to be increased if significant changes have been done. */
-    private static final int VERSION = 5;
+    private static final int VERSION = 9;
 
     /**
      * Returns indexer's name.
@@ -79,7 +71,8 @@ public class IgnoreFilesIndex extends AbstractIgnoreFilesIndex<IgnoreFileTypeKey
     }
 
     /**
-     * Maps indexed files content to the {@link IgnoreEntryOccurrence}.
+     * Maps indexed files content to the {@link IgnoreEntryOccurrence}. Content is read with {@link IgnoreLineParser}
+     * instead of PSI, so no AST is built for the indexed files.
      *
      * @param inputData indexed file data
      * @return {@link IgnoreEntryOccurrence} data mapped with {@link IgnoreFileTypeKey}
@@ -87,48 +80,38 @@ public class IgnoreFilesIndex extends AbstractIgnoreFilesIndex<IgnoreFileTypeKey
     @NotNull
     @Override
     public Map<IgnoreFileTypeKey, IgnoreEntryOccurrence> map(@NotNull final FileContent inputData) {
-        PsiFile inputDataPsi;
-        try {
-            inputDataPsi = inputData.getPsiFile();
-        } catch (Exception e) {
-            // if there is some stale indices (e.g. for mobi.hsz.idea.gitignore.lang.kind.GitLanguage)
-            // inputData.getPsiFile() could throw exception that should be avoided
-            return Collections.emptyMap();
-        }
-
-        if (!(inputDataPsi instanceof IgnoreFile)) {
+        if (!(inputData.getFileType() instanceof IgnoreFileType)) {
             return Collections.emptyMap();
         }
 
-        final ArrayList<Pair<String, Boolean>> items = new ArrayList<>();
-        inputDataPsi.acceptChildren(new IgnoreVisitor() {
-            @Override
-            public void visitEntry(@NotNull IgnoreEntry entry) {
-                final String regex = Glob.getRegex(entry.getValue(), entry.getSyntax(), false);
-                items.add(Pair.create(regex, entry.isNegated()));
-            }
-        });
+        final IgnoreFileType type = (IgnoreFileType) inputData.getFileType();
+        final List<IgnoreEntryOccurrence.Item> items = new ArrayList<>();
+        IgnoreLineParser.parse(
+                inputData.getContentAsText(),
+                type.getIgnoreLanguage(),
+                (value, negated, syntax) -> items.add(new IgnoreEntryOccurrence.Item(value, syntax, negated))
+        );
 
         return Collections.singletonMap(
-                new IgnoreFileTypeKey((IgnoreFileType) inputData.getFileType()),
-                new IgnoreEntryOccurrence(inputData.getFile().getUrl(), items)
+                new IgnoreFileTypeKey(type),
+                new IgnoreEntryOccurrence(inputData.getFile(), items)
         );
     }
 
     /**
-     * Saves data to the indexing output stream.
+     * Saves data to the indexing output stream. Method is stateless, so it can be called from many indexing threads.
      *
      * @param out   output stream
      * @param value filetype to write
      * @throws IOException if an I/O error occurs
      */
     @Override
-    public synchronized void save(@NotNull DataOutput out, IgnoreFileTypeKey value) throws IOException {
+    public void save(@NotNull DataOutput out, IgnoreFileTypeKey value) throws IOException {
         out.writeUTF(value.getType().getLanguageName());
     }
 
     /**
-     * Reads data from the input stream.
+     * Reads data from the input stream. Method is stateless, so it can be called from many indexing threads.
      *
      * @param in input stream
      * @return {@link IgnoreFileTypeKey} instance read from the stream
@@ -136,15 +119,8 @@ public class IgnoreFilesIndex extends AbstractIgnoreFilesIndex<IgnoreFileTypeKey
      * @throws IOException if an I/O error occurs
      */
     @Override
-    public synchronized IgnoreFileTypeKey read(@NotNull DataInput in) throws IOException {
-        final String languageName = in.readUTF();
-        for (IgnoreLanguage language : IgnoreBundle.LANGUAGES) {
-            final IgnoreFileType type = language.getFileType();
-            if (type.getLanguageName().equals(languageName)) {
-                return new IgnoreFileTypeKey(type);
-            }
-        }
-        return null;
+    public IgnoreFileTypeKey read(@NotNull DataInput in) throws IOException {
+        return IgnoreFileTypeKey.find(in.readUTF());
     }
 
     /**
@@ -0,0 +1,350 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.indexing;
+
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lightweight parser of the ignore files content used by {@link IgnoreFilesIndex}. It reads the text in a single pass,
+ * without building PSI, and reports entries with the same value, negation and syntax as
+ * {@link mobi.hsz.idea.gitignore.psi.IgnoreEntry} would have. Tokens of the <code>Ignore.flex</code> lexer and rules of
+ * the <code>Ignore.bnf</code> grammar are followed, so the content the PSI parser cannot match - i.e. negation followed
+ * by a whitespace - ends the parsing, as the rest of the file is an error element in PSI.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class IgnoreLineParser {
+    /** Syntax line prefix. */
+    private static final String SYNTAX_KEY = "syntax:";
+
+    /** Parsing failed, the rest of the content is not parsed. */
+    private static final int FAILED = -1;
+
+    /** Private constructor to prevent creating {@link IgnoreLineParser} instance. */
+    private IgnoreLineParser() {
+    }
+
+    /** Processor of the parsed entries. */
+    public interface EntryProcessor {
+        /**
+         * Handles parsed entry.
+         *
+         * @param value   entry value without negation sign
+         * @param negated entry is negated
+         * @param syntax  syntax of the entry
+         */
+        void process(@NotNull String value, boolean negated, @NotNull IgnoreBundle.Syntax syntax);
+    }
+
+    /**
+     * Parses given content and passes all the entries to the processor in the file order. <code>syntax:</code> lines
+     * switch the syntax in every language, because the lexer used for parsing is not bound to a file.
+     *
+     * @param text      ignore file content
+     * @param language  language of the file
+     * @param processor entries processor
+     */
+    public static void parse(@NotNull CharSequence text, @NotNull IgnoreLanguage language,
+                             @NotNull EntryProcessor processor) {
+        final int length = text.length();
+        IgnoreBundle.Syntax syntax = language.getDefaultSyntax();
+        boolean inEntry = false;
+
+        int position = 0;
+        while (position < length) {
+            final char c = text.charAt(position);
+            if (isLineBreak(c) || (isLineWhitespace(c) && (!inEntry || isWhitespaceToLineEnd(text, position)))) {
+                position = skipWhitespaces(text, position);
+                inEntry = false;
+                continue;
+            }
+
+            if (inEntry) {
+                final int end = parseEntry(text, position);
+                if (end == FAILED) {
+                    return;
+                }
+                processor.process(text.subSequence(position, end).toString(), false, syntax);
+                position = end;
+            } else if (c == '#') {
+                position = lineEnd(text, position);
+            } else if (startsWith(text, position, SYNTAX_KEY)) {
+                int start = skipComments(text, position + SYNTAX_KEY.length());
+                if (!isEntryStart(text, start) || tokenEnd(text, start) == start) {
+                    return;
+                }
+                final int end = tokenEnd(text, start);
+                final IgnoreBundle.Syntax found = IgnoreBundle.Syntax.find(text.subSequence(start, end).toString());
+                if (found != null) {
+                    syntax = found;
+                }
+                position = end;
+                inEntry = true;
+            } else {
+                final boolean negated = c == '!';
+                final int start = negated ? position + 1 : position;
+                final int end = isEntryStart(text, start) ? parseEntry(text, start) : FAILED;
+                if (end == FAILED) {
+                    return;
+                }
+                processor.process(text.subSequence(start, end).toString(), negated, syntax);
+                position = end;
+                inEntry = true;
+            }
+        }
+    }
+
+    /**
+     * Parses <code>ENTRY_DIRECTORY</code> or <code>ENTRY_FILE</code> rule without the negation: optional slash, values
+     * separated with slashes and optional trailing slash for the directory.
+     *
+     * @param text  content
+     * @param start entry start offset
+     * @return entry end offset or {@link #FAILED}
+     */
+    private static int parseEntry(@NotNull CharSequence text, int start) {
+        int position = start < text.length() && text.charAt(start) == '/' ? start + 1 : start;
+        position = parseValues(text, position);
+        if (position == FAILED) {
+            return FAILED;
+        }
+
+        while (position < text.length() && text.charAt(position) == '/') {
+            final int next = parseValues(text, position + 1);
+            if (next == FAILED) {
+                // trailing slash of the directory entry
+                return position + 1;
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * Parses one or more values: <code>VALUE</code> tokens and bracket expressions.
+     *
+     * @param text  content
+     * @param start values start offset
+     * @return values end offset or {@link #FAILED} if there is no value
+     */
+    private static int parseValues(@NotNull CharSequence text, int start) {
+        int position = start;
+        while (position < text.length() && !isWhitespaceToLineEnd(text, position)) {
+            final char c = text.charAt(position);
+            if (c == '[') {
+                position = parseBracket(text, position);
+            } else if (c != ']' && c != '/' && !isLineBreak(c)) {
+                position = tokenEnd(text, position);
+            } else {
+                break;
+            }
+        }
+        return position == start ? FAILED : position;
+    }
+
+    /**
+     * Parses bracket expression. Rule is pinned at the opening bracket, so incomplete expression is still matched.
+     *
+     * @param text  content
+     * @param start opening bracket offset
+     * @return expression end offset
+     */
+    private static int parseBracket(@NotNull CharSequence text, int start) {
+        int position = start + 1;
+        while (position < text.length() && !isWhitespaceToLineEnd(text, position)) {
+            final int end = tokenEnd(text, position);
+            if (end == position) {
+                break;
+            }
+            position = end;
+            if (position < text.length() && text.charAt(position) == '/') {
+                position++;
+            }
+        }
+        return position < text.length() && text.charAt(position) == ']' ? position + 1 : position;
+    }
+
+    /**
+     * Returns end offset of the <code>VALUE</code> token that starts at the given offset. Escaped brackets and slashes
+     * are part of the token.
+     *
+     * @param text  content
+     * @param start token start offset
+     * @return token end offset, equal to start if there is no token
+     */
+    private static int tokenEnd(@NotNull CharSequence text, int start) {
+        int position = start;
+        while (position < text.length()) {
+            final char c = text.charAt(position);
+            if (c == '\\' && position + 1 < text.length() && isSpecial(text.charAt(position + 1))) {
+                position += 2;
+            } else if (isSpecial(c) || isLineBreak(c)) {
+                break;
+            } else {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Checks if an entry may start at the given offset of the line beginning, where the lexer does not enter
+     * the entry state for whitespaces, comments, negations and syntax keys.
+     *
+     * @param text  content
+     * @param start offset to check
+     * @return entry may start
+     */
+    private static boolean isEntryStart(@NotNull CharSequence text, int start) {
+        if (start >= text.length()) {
+            return false;
+        }
+        final char c = text.charAt(start);
+        return c != '!' && c != '#' && !isLineWhitespace(c) && !isLineBreak(c) && !startsWith(text, start, SYNTAX_KEY);
+    }
+
+    /**
+     * Skips whitespaces, line breaks and single-hash comments that may separate the syntax key from its value.
+     * Headers and sections are not comments for the parser.
+     *
+     * @param text  content
+     * @param start offset after the syntax key
+     * @return offset of the first other character
+     */
+    private static int skipComments(@NotNull CharSequence text, int start) {
+        int position = start;
+        while (position < text.length()) {
+            final char c = text.charAt(position);
+            if (isLineBreak(c) || isLineWhitespace(c)) {
+                position++;
+            } else if (c == '#' && !startsWith(text, position, "##")) {
+                position = lineEnd(text, position);
+            } else {
+                break;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Skips whitespaces and line breaks.
+     *
+     * @param text  content
+     * @param start start offset
+     * @return offset of the first other character
+     */
+    private static int skipWhitespaces(@NotNull CharSequence text, int start) {
+        int position = start;
+        while (position < text.length() && (isLineBreak(text.charAt(position)) ||
+                isLineWhitespace(text.charAt(position)))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Checks if only whitespaces followed by a line break are at the given offset, which the lexer reads as a line
+     * break token instead of a value.
+     *
+     * @param text  content
+     * @param start offset to check
+     * @return whitespaces are followed by a line break
+     */
+    private static boolean isWhitespaceToLineEnd(@NotNull CharSequence text, int start) {
+        int position = start;
+        while (position < text.length() && isLineWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position < text.length() && isLineBreak(text.charAt(position));
+    }
+
+    /**
+     * Returns offset of the line break that ends the line.
+     *
+     * @param text  content
+     * @param start offset in the line
+     * @return line end offset
+     */
+    private static int lineEnd(@NotNull CharSequence text, int start) {
+        int position = start;
+        while (position < text.length() && !isLineBreak(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Checks if the text starts with the given prefix at the given offset.
+     *
+     * @param text   content
+     * @param start  offset to check
+     * @param prefix prefix to check
+     * @return text starts with prefix
+     */
+    private static boolean startsWith(@NotNull CharSequence text, int start, @NotNull String prefix) {
+        if (text.length() - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if character is a bracket or a slash, which are separate tokens in the entry.
+     *
+     * @param c character
+     * @return is special
+     */
+    private static boolean isSpecial(char c) {
+        return c == '[' || c == ']' || c == '/';
+    }
+
+    /**
+     * Checks if character breaks the line.
+     *
+     * @param c character
+     * @return is line break
+     */
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * Checks if character is a whitespace that does not break the line.
+     *
+     * @param c character
+     * @return is whitespace
+     */
+    private static boolean isLineWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+}
@@ -29,33 +29,71 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.SearchScope;
+import com.intellij.util.containers.ContainerUtil;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashSet;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Provides extended {@link GlobalSearchScope} with additional ignore files (i.e. outer gitignore files).
+ * Provides extended {@link GlobalSearchScope} with additional ignore files (i.e. outer gitignore files). Scope is
+ * cached per project together with the {@link ExternalIndexableSetContributor.Snapshot} it was built for and is
+ * rebuilt once a different snapshot is published.
  *
  * @author Jakub Chrzanowski <jakub@hsz.mobi>
  * @since 2.0
  */
 public class IgnoreSearchScope extends GlobalSearchScope {
-    private IgnoreSearchScope(@NotNull Project project) {
+    /** Cached scopes of the projects. */
+    private static final ConcurrentMap<Project, IgnoreSearchScope> CACHE = ContainerUtil.newConcurrentMap();
+
+    /** Snapshot of the additional files. */
+    @NotNull
+    private final ExternalIndexableSetContributor.Snapshot snapshot;
+
+    /**
+     * Constructor.
+     *
+     * @param project  current project
+     * @param snapshot snapshot of the additional files located outside of the project
+     */
+    private IgnoreSearchScope(@NotNull Project project, @NotNull ExternalIndexableSetContributor.Snapshot snapshot) {
         super(project);
+        this.snapshot = snapshot;
     }
 
     /**
-     * Returns {@link GlobalSearchScope#projectScope(Project)} instance united with additional files.
+     * Returns cached scope of all the ignore files in the project including additional files. Cached scope is
+     * replaced if it was built for other snapshot than the current one, so a stale scope is never returned.
      *
      * @param project current project
      * @return extended instance of {@link GlobalSearchScope}
      */
     @NotNull
     public static GlobalSearchScope get(@NotNull Project project) {
-        final IgnoreSearchScope scope = new IgnoreSearchScope(project);
-        final HashSet<VirtualFile> files = ExternalIndexableSetContributor.getAdditionalFiles(project);
-        return scope.uniteWith(GlobalSearchScope.filesScope(project, files));
+        final ExternalIndexableSetContributor.Snapshot snapshot = ExternalIndexableSetContributor.getSnapshot(project);
+        final IgnoreSearchScope scope = CACHE.get(project);
+        if (scope != null && scope.snapshot == snapshot) {
+            return scope;
+        }
+
+        final IgnoreSearchScope created = new IgnoreSearchScope(project, snapshot);
+        CACHE.put(project, created);
+        return created;
+    }
+
+    /**
+     * Removes cached scope for the given project.
+     *
+     * @param project current project
+     */
+    static void invalidate(@NotNull Project project) {
+        CACHE.remove(project);
+    }
+
+    /** Removes disposed projects from the {@link #CACHE} map. */
+    static void invalidateDisposedProjects() {
+        CACHE.keySet().removeIf(Project::isDisposed);
     }
 
     @Override
@@ -65,7 +103,10 @@ public class IgnoreSearchScope extends GlobalSearchScope {
 
     @Override
     public boolean contains(@NotNull final VirtualFile file) {
-        return file.getFileType() instanceof IgnoreFileType;
+        if (file.getFileType() instanceof IgnoreFileType) {
+            return true;
+        }
+        return snapshot.contains(file);
     }
 
     @Override
@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.impl.source.tree.TreeElement;
+import com.intellij.psi.tree.ICustomParsingType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementTypeBase;
+import com.intellij.util.CharTable;
+import mobi.hsz.idea.gitignore.lang.IgnoreParserDefinition;
+import mobi.hsz.idea.gitignore.lexer.IgnoreLexerAdapter;
+import mobi.hsz.idea.gitignore.parser.IgnoreParser;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Element type of the entries. Entries always take a single line and do not affect their siblings, so when the
+ * change stays within one entry, only this line is relexed and reparsed instead of the whole file.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class IgnoreEntryElementType extends IgnoreElementType
+        implements ICustomParsingType, IReparseableElementTypeBase {
+    /** Build a new instance of @{link IgnoreEntryElementType} */
+    public IgnoreEntryElementType(@NotNull @NonNls String debugName) {
+        super(debugName);
+    }
+
+    /**
+     * Factory method used by the generated {@link IgnoreTypes}.
+     *
+     * @param debugName element type name
+     * @return new element type
+     */
+    @NotNull
+    public static IElementType create(@NotNull @NonNls String debugName) {
+        return new IgnoreEntryElementType(debugName);
+    }
+
+    /**
+     * Checks if the changed text still can be a single entry. Line breaks, comments, whitespaces on the beginning and
+     * syntax lines can affect other elements, so the whole file has to be reparsed then.
+     *
+     * @param parent       parent node
+     * @param buffer       new text of the entry
+     * @param fileLanguage language of the file
+     * @param project      current project
+     * @return text can be reparsed as a single entry
+     */
+    @Override
+    public boolean isParsable(@Nullable ASTNode parent, @NotNull CharSequence buffer, @NotNull Language fileLanguage,
+                              @NotNull Project project) {
+        if (buffer.length() == 0) {
+            return false;
+        }
+
+        final Lexer lexer = new IgnoreLexerAdapter(project);
+        lexer.start(buffer);
+
+        boolean first = true;
+        for (IElementType type = lexer.getTokenType(); type != null; type = lexer.getTokenType()) {
+            if (!isEntryToken(type) && !(first && type == IgnoreTypes.NEGATION)) {
+                return false;
+            }
+            first = false;
+            lexer.advance();
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if token can be a part of the entry value. {@link IgnoreTypes} are not referenced statically, because
+     * entry types are created while {@link IgnoreTypes} are initialized.
+     *
+     * @param type token type
+     * @return token belongs to entry value
+     */
+    private static boolean isEntryToken(@NotNull IElementType type) {
+        return type == IgnoreTypes.SLASH || type == IgnoreTypes.VALUE ||
+                type == IgnoreTypes.BRACKET_LEFT || type == IgnoreTypes.BRACKET_RIGHT;
+    }
+
+    /**
+     * Parses the entry text. If the text does not result with a single entry, the parsed root is returned and the
+     * reparse is rejected with {@link #isValidReparse(ASTNode, ASTNode)}.
+     *
+     * @param text  entry text
+     * @param table char table
+     * @return parsed entry node
+     */
+    @NotNull
+    @Override
+    public ASTNode parse(@NotNull CharSequence text, @NotNull CharTable table) {
+        final PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+                new IgnoreParserDefinition(),
+                new IgnoreLexerAdapter(null),
+                text
+        );
+        final ASTNode root = new IgnoreParser().parse(IgnoreParserDefinition.FILE, builder);
+
+        final ASTNode entry = root.getFirstChildNode();
+        if (entry == null || entry.getTreeNext() != null || entry.getElementType() != this) {
+            return root;
+        }
+
+        ((TreeElement) entry).rawRemove();
+        return entry;
+    }
+
+    /**
+     * Accepts the reparse only if the entry kept its type and was parsed without errors.
+     *
+     * @param oldNode current entry node
+     * @param newNode reparsed node
+     * @return reparse is valid
+     */
+    @Override
+    public boolean isValidReparse(@NotNull ASTNode oldNode, @NotNull ASTNode newNode) {
+        if (newNode.getElementType() != oldNode.getElementType()) {
+            return false;
+        }
+
+        for (ASTNode child = newNode.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == TokenType.ERROR_ELEMENT) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.psi;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table of the syntax regions in {@link IgnoreFile}. Each valid <code>syntax:</code> line starts a new run that lasts
+ * until the next valid one, so resolving syntax for an element is a lookup by its offset instead of walking back
+ * through all the previous siblings.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class IgnoreSyntaxRuns {
+    /** Syntax used before the first valid <code>syntax:</code> line. */
+    @NotNull
+    private final IgnoreBundle.Syntax defaultSyntax;
+
+    /** Ascending start offsets of the runs. */
+    @NotNull
+    private final int[] offsets;
+
+    /** Syntax of the runs, indexed as {@link #offsets}. */
+    @NotNull
+    private final IgnoreBundle.Syntax[] syntaxes;
+
+    /**
+     * Builds the table walking through the file's children once.
+     *
+     * @param file ignore file
+     */
+    private IgnoreSyntaxRuns(@NotNull IgnoreFile file) {
+        final List<Integer> offsets = new ArrayList<>();
+        final List<IgnoreBundle.Syntax> syntaxes = new ArrayList<>();
+
+        for (PsiElement child = file.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof IgnoreSyntax) {
+                final IgnoreBundle.Syntax syntax = IgnoreBundle.Syntax.find(
+                        ((IgnoreSyntax) child).getValue().getText()
+                );
+                if (syntax != null) {
+                    offsets.add(child.getTextRange().getEndOffset());
+                    syntaxes.add(syntax);
+                }
+            }
+        }
+
+        this.defaultSyntax = ((IgnoreLanguage) file.getLanguage()).getDefaultSyntax();
+        this.offsets = new int[offsets.size()];
+        for (int i = 0; i < this.offsets.length; i++) {
+            this.offsets[i] = offsets.get(i);
+        }
+        this.syntaxes = syntaxes.toArray(new IgnoreBundle.Syntax[0]);
+    }
+
+    /**
+     * Returns cached {@link IgnoreSyntaxRuns} for the given file. Table is rebuilt when the file is modified.
+     *
+     * @param file ignore file
+     * @return syntax runs table
+     */
+    @NotNull
+    public static IgnoreSyntaxRuns getInstance(@NotNull IgnoreFile file) {
+        return CachedValuesManager.getCachedValue(
+                file,
+                () -> CachedValueProvider.Result.create(new IgnoreSyntaxRuns(file), file)
+        );
+    }
+
+    /**
+     * Returns syntax that applies to the given offset in file.
+     *
+     * @param offset offset in file
+     * @return syntax
+     */
+    @NotNull
+    public IgnoreBundle.Syntax getSyntaxAt(int offset) {
+        if (offsets.length == 0 || offset < offsets[0]) {
+            return defaultSyntax;
+        }
+
+        int index = Arrays.binarySearch(offsets, offset);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return syntaxes[index];
+    }
+}
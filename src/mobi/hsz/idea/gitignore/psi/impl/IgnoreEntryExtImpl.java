@@ -26,7 +26,7 @@ package mobi.hsz.idea.gitignore.psi.impl;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
 import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
 import mobi.hsz.idea.gitignore.psi.*;
@@ -76,22 +76,15 @@ public abstract class IgnoreEntryExtImpl extends IgnoreElementImpl implements Ig
     }
 
     /**
-     * Returns element syntax.
+     * Returns element syntax resolved from the cached {@link IgnoreSyntaxRuns} table of the containing file.
      *
      * @return syntax
      */
     @NotNull
     public IgnoreBundle.Syntax getSyntax() {
-        PsiElement previous = getPrevSibling();
-        while (previous != null) {
-            if (previous.getNode().getElementType().equals(IgnoreTypes.SYNTAX)) {
-                IgnoreBundle.Syntax syntax =
-                        IgnoreBundle.Syntax.find(((IgnoreSyntaxImpl) previous).getValue().getText());
-                if (syntax != null) {
-                    return syntax;
-                }
-            }
-            previous = previous.getPrevSibling();
+        final PsiFile file = getContainingFile();
+        if (file instanceof IgnoreFile) {
+            return IgnoreSyntaxRuns.getInstance((IgnoreFile) file).getSyntaxAt(getTextRange().getStartOffset());
         }
         return ((IgnoreLanguage) getContainingFile().getLanguage()).getDefaultSyntax();
     }
@@ -57,7 +57,8 @@ public class IgnoreSettings implements PersistentStateComponent<Element>, Listen
         OUTER_IGNORE_RULES("outerIgnoreRules"), OUTER_IGNORE_WRAPPER_HEIGHT("outerIgnoreWrapperHeight"),
         INSERT_AT_CURSOR("insertAtCursor"), ADD_UNVERSIONED_FILES("addUnversionedFiles"),
         STARRED_TEMPLATES("starredTemplates"), UNIGNORE_ACTIONS("unignoreActions"),
-        HIDE_IGNORED_FILES("hideIgnoredFiles"), NOTIFY_IGNORED_EDITING("notifyIgnoredEditing");
+        HIDE_IGNORED_FILES("hideIgnoredFiles"), NOTIFY_IGNORED_EDITING("notifyIgnoredEditing"),
+        GIT_CHECK_IGNORE("gitCheckIgnore");
 
         private final String key;
 
@@ -105,6 +106,9 @@ public class IgnoreSettings implements PersistentStateComponent<Element>, Listen
     /** Shows notification about editing ignored file. */
     private boolean notifyIgnoredEditing = true;
 
+    /** Verify ignored file status with the <code>git check-ignore</code> command. */
+    private boolean gitCheckIgnore = false;
+
     /** Starred templates. */
     @NotNull
     private final List<String> starredTemplates = new ArrayList<>();
@@ -153,6 +157,7 @@ public class IgnoreSettings implements PersistentStateComponent<Element>, Listen
         element.setAttribute(KEY.UNIGNORE_ACTIONS.toString(), Boolean.toString(unignoreActions));
         element.setAttribute(KEY.HIDE_IGNORED_FILES.toString(), Boolean.toString(hideIgnoredFiles));
         element.setAttribute(KEY.NOTIFY_IGNORED_EDITING.toString(), Boolean.toString(notifyIgnoredEditing));
+        element.setAttribute(KEY.GIT_CHECK_IGNORE.toString(), Boolean.toString(gitCheckIgnore));
 
         Element languagesElement = new Element(KEY.LANGUAGES.toString());
         for (Map.Entry<IgnoreLanguage, TreeMap<IgnoreLanguagesSettings.KEY, Object>> entry :
@@ -232,6 +237,11 @@ public class IgnoreSettings implements PersistentStateComponent<Element>, Listen
             notifyIgnoredEditing = Boolean.parseBoolean(value);
         }
 
+        value = element.getAttributeValue(KEY.GIT_CHECK_IGNORE.toString());
+        if (value != null) {
+            gitCheckIgnore = Boolean.parseBoolean(value);
+        }
+
         Element languagesElement = element.getChild(KEY.LANGUAGES.toString());
         if (languagesElement != null) {
             for (Element languageElement : languagesElement.getChildren()) {
@@ -415,6 +425,25 @@ public class IgnoreSettings implements PersistentStateComponent<Element>, Listen
         this.notifyIgnoredEditing = notifyIgnoredEditing;
     }
 
+    /**
+     * Checks if ignored file status should be verified with the <code>git check-ignore</code> command.
+     *
+     * @return true if git verification is enabled
+     */
+    public boolean isGitCheckIgnore() {
+        return gitCheckIgnore;
+    }
+
+    /**
+     * Sets value for verifying ignored file status with the <code>git check-ignore</code> command.
+     *
+     * @param gitCheckIgnore verify with git
+     */
+    public void setGitCheckIgnore(boolean gitCheckIgnore) {
+        this.notifyOnChange(KEY.GIT_CHECK_IGNORE, this.gitCheckIgnore, gitCheckIgnore);
+        this.gitCheckIgnore = gitCheckIgnore;
+    }
+
     /**
      * Returns the height of the outer ignore file wrapper panel.
      *
@@ -107,6 +107,7 @@ public class IgnoreSettingsConfigurable implements SearchableConfigurable, VcsCo
                 || !Comparing.equal(settings.isAddUnversionedFiles(), settingsPanel.isAddUnversionedFiles())
                 || !Comparing.equal(settings.isUnignoreActions(), settingsPanel.isUnignoreActions())
                 || !Comparing.equal(settings.isNotifyIgnoredEditing(), settingsPanel.isNotifyIgnoredEditing())
+                || !Comparing.equal(settings.isGitCheckIgnore(), settingsPanel.isGitCheckIgnore())
                 || !settingsPanel.getLanguagesSettings().equalSettings(settings.getLanguagesSettings());
     }
 
@@ -125,6 +126,7 @@ public class IgnoreSettingsConfigurable implements SearchableConfigurable, VcsCo
         settings.setLanguagesSettings(settingsPanel.getLanguagesSettings().getSettings());
         settings.setUnignoreActions(settingsPanel.isUnignoreActions());
         settings.setNotifyIgnoredEditing(settingsPanel.isNotifyIgnoredEditing());
+        settings.setGitCheckIgnore(settingsPanel.isGitCheckIgnore());
     }
 
     /** Load settings from other components to configurable. */
@@ -141,6 +143,7 @@ public class IgnoreSettingsConfigurable implements SearchableConfigurable, VcsCo
         settingsPanel.setAddUnversionedFiles(settings.isAddUnversionedFiles());
         settingsPanel.setUnignoreActions(settings.isUnignoreActions());
         settingsPanel.setNotifyIgnoredEditing(settings.isNotifyIgnoredEditing());
+        settingsPanel.setGitCheckIgnore(settings.isGitCheckIgnore());
 
         IgnoreSettingsPanel.LanguagesTableModel model = settingsPanel.getLanguagesSettings();
         model.update(settings.getLanguagesSettings().clone());
@@ -121,6 +121,9 @@ public class IgnoreSettingsPanel implements Disposable {
     /** Inform about editing ignored file. */
     private JCheckBox notifyIgnoredEditing;
 
+    /** Verify ignored file status with git. */
+    private JCheckBox gitCheckIgnore;
+
     /** Editor panel element. */
     private EditorPanel editorPanel;
 
@@ -313,6 +316,24 @@ public class IgnoreSettingsPanel implements Disposable {
         this.notifyIgnoredEditing.setSelected(selected);
     }
 
+    /**
+     * Returns value of @{link {@link #gitCheckIgnore}} field.
+     *
+     * @return {@link #gitCheckIgnore} is selected
+     */
+    public boolean isGitCheckIgnore() {
+        return gitCheckIgnore.isSelected();
+    }
+
+    /**
+     * Sets value of {@link #gitCheckIgnore} field.
+     *
+     * @param selected value for {@link #gitCheckIgnore}
+     */
+    public void setGitCheckIgnore(boolean selected) {
+        this.gitCheckIgnore.setSelected(selected);
+    }
+
     /**
      * Returns model of {@link #languagesTable}.
      *
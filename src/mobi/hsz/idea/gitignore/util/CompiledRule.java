@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.util;
+
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Result of the ignore rule compilation - holds the regex generated for the rule and either the compiled
+ * {@link Pattern} or the description of the syntax error. Instances are immutable and shared with {@link Glob}.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class CompiledRule {
+    /** Regex generated for the rule. */
+    @NotNull
+    private final String regex;
+
+    /** Compiled pattern or <code>null</code> if regex is invalid. */
+    @Nullable
+    private final Pattern pattern;
+
+    /** Syntax error description or <code>null</code> if regex is valid. */
+    @Nullable
+    private final String error;
+
+    /**
+     * Constructor.
+     *
+     * @param regex   generated regex
+     * @param pattern compiled pattern
+     * @param error   syntax error description
+     */
+    private CompiledRule(@NotNull String regex, @Nullable Pattern pattern, @Nullable String error) {
+        this.regex = regex;
+        this.pattern = pattern;
+        this.error = error;
+    }
+
+    /**
+     * Converts given rule to regex and compiles it. Use {@link Glob#compile} to obtain cached instances.
+     *
+     * @param rule           rule value
+     * @param syntax         rule syntax
+     * @param acceptChildren Matches directory children
+     * @return compiled rule
+     */
+    @NotNull
+    static CompiledRule compile(@NotNull String rule, @NotNull IgnoreBundle.Syntax syntax, boolean acceptChildren) {
+        final String regex = Glob.getRegex(rule, syntax, acceptChildren);
+        try {
+            return new CompiledRule(regex, Pattern.compile(regex), null);
+        } catch (PatternSyntaxException e) {
+            return new CompiledRule(regex, null, e.getDescription());
+        }
+    }
+
+    /**
+     * Returns regex generated for the rule.
+     *
+     * @return regex
+     */
+    @NotNull
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * Returns compiled {@link Pattern}.
+     *
+     * @return pattern or <code>null</code> if rule is invalid
+     */
+    @Nullable
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Returns syntax error description.
+     *
+     * @return error or <code>null</code> if rule is valid
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Checks if rule was compiled successfully.
+     *
+     * @return rule is valid
+     */
+    public boolean isValid() {
+        return pattern != null;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * In-process reader of the global Git configuration: <code>$XDG_CONFIG_HOME/git/config</code> and
+ * <code>~/.gitconfig</code> (or the <code>$GIT_CONFIG_GLOBAL</code> file), including files pulled in with
+ * <code>[include] path</code> directives. Parsed values are cached and re-read only when any of the read files
+ * changes its modification time or size, which is checked at most once per {@link #CHECK_INTERVAL}.
+ * <code>[includeIf]</code> sections are skipped, as their conditions depend on the repository.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public final class GitConfigReader {
+    /** Minimal interval between checks of the configuration files modifications. */
+    private static final long CHECK_INTERVAL = 1000;
+
+    /** Maximum depth of the nested include directives, same as Git uses. */
+    private static final int MAX_INCLUDE_DEPTH = 10;
+
+    /** Name of the include directive key. */
+    @NonNls
+    private static final String INCLUDE_PATH = "include.path";
+
+    /** Currently cached configuration. */
+    @Nullable
+    private static volatile Snapshot snapshot;
+
+    /** Private constructor to prevent creating {@link GitConfigReader} instance. */
+    private GitConfigReader() {
+    }
+
+    /**
+     * Returns value of the given key from the global Git configuration. Last occurrence of the key wins.
+     *
+     * @param section section name with optional subsection, i.e. <code>core</code> or <code>remote.origin</code>
+     * @param key     key name, i.e. <code>excludesFile</code>
+     * @return value or <code>null</code> if not set
+     */
+    @Nullable
+    public static String getGlobalValue(@NotNull String section, @NotNull String key) {
+        return getSnapshot().getValue(section, key);
+    }
+
+    /**
+     * Returns up-to-date configuration snapshot.
+     *
+     * @return configuration snapshot
+     */
+    @NotNull
+    private static Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        final long now = System.currentTimeMillis();
+        if (current != null && (now < current.nextCheck || current.isUpToDate())) {
+            current.nextCheck = Math.max(current.nextCheck, now + CHECK_INTERVAL);
+            return current;
+        }
+
+        current = Snapshot.read(getGlobalFiles());
+        current.nextCheck = now + CHECK_INTERVAL;
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * Returns global configuration files in the order Git reads them.
+     *
+     * @return global configuration files
+     */
+    @NotNull
+    private static List<File> getGlobalFiles() {
+        final String global = System.getenv("GIT_CONFIG_GLOBAL");
+        if (StringUtil.isNotEmpty(global)) {
+            return Collections.singletonList(new File(Utils.resolveUserDir(global)));
+        }
+
+        final String home = System.getProperty("user.home");
+        final String xdg = System.getenv("XDG_CONFIG_HOME");
+        final File configHome = StringUtil.isNotEmpty(xdg) ? new File(xdg) : new File(home, ".config");
+        return Arrays.asList(new File(configHome, "git/config"), new File(home, ".gitconfig"));
+    }
+
+    /** Parsed values of the configuration files together with their state. */
+    static class Snapshot {
+        /** Values mapped by the lowercase <code>section.key</code> or <code>section.subsection.key</code> name. */
+        @NotNull
+        private final Map<String, String> values = new HashMap<>();
+
+        /** Read files with their modification time and size. */
+        @NotNull
+        private final Map<File, long[]> stamps = new LinkedHashMap<>();
+
+        /** Time of the next modifications check. */
+        private volatile long nextCheck;
+
+        /**
+         * Reads given configuration files.
+         *
+         * @param files configuration files
+         * @return configuration snapshot
+         */
+        @NotNull
+        static Snapshot read(@NotNull List<File> files) {
+            final Snapshot result = new Snapshot();
+            for (File file : files) {
+                result.readFile(file, 0);
+            }
+            return result;
+        }
+
+        /**
+         * Returns value of the given key.
+         *
+         * @param section section name, optionally followed by the case-sensitive subsection: <code>remote.origin</code>
+         * @param key     key name
+         * @return value or <code>null</code> if not set
+         */
+        @Nullable
+        String getValue(@NotNull String section, @NotNull String key) {
+            final int dot = section.indexOf('.');
+            final String name = dot < 0 ? section.toLowerCase(Locale.ROOT) :
+                    section.substring(0, dot).toLowerCase(Locale.ROOT) + section.substring(dot);
+            return values.get(name + "." + key.toLowerCase(Locale.ROOT));
+        }
+
+        /**
+         * Checks if none of the read files was modified, created or removed.
+         *
+         * @return snapshot is up-to-date
+         */
+        boolean isUpToDate() {
+            for (Map.Entry<File, long[]> entry : stamps.entrySet()) {
+                final File file = entry.getKey();
+                if (file.lastModified() != entry.getValue()[0] || file.length() != entry.getValue()[1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads single configuration file. Missing files are remembered too, so their creation is noticed.
+         *
+         * @param file  configuration file
+         * @param depth include depth
+         */
+        private void readFile(@NotNull File file, int depth) {
+            stamps.put(file, new long[]{file.lastModified(), file.length()});
+            if (!file.isFile()) {
+                return;
+            }
+
+            try {
+                parse(FileUtil.loadFile(file, StandardCharsets.UTF_8), file, depth);
+            } catch (IOException ignored) {
+            }
+        }
+
+        /**
+         * Parses configuration file content.
+         *
+         * @param text  file content
+         * @param file  configuration file
+         * @param depth include depth
+         */
+        private void parse(@NotNull String text, @NotNull File file, int depth) {
+            final int length = text.length();
+            final StringBuilder buffer = new StringBuilder();
+            String section = null;
+            int i = 0;
+
+            while (i < length) {
+                final char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '#' || c == ';') {
+                    i = skipLine(text, i);
+                } else if (c == '[') {
+                    final int end = text.indexOf(']', i);
+                    if (end < 0) {
+                        return;
+                    }
+                    section = parseSection(text.substring(i + 1, end));
+                    i = end + 1;
+                } else if (Character.isLetter(c)) {
+                    int end = i;
+                    while (end < length && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '-')) {
+                        end++;
+                    }
+                    final String key = text.substring(i, end).toLowerCase(Locale.ROOT);
+                    while (end < length && (text.charAt(end) == ' ' || text.charAt(end) == '\t')) {
+                        end++;
+                    }
+
+                    final String value;
+                    if (end < length && text.charAt(end) == '=') {
+                        i = parseValue(text, end + 1, buffer);
+                        value = buffer.toString();
+                    } else {
+                        i = end;
+                        value = "true";
+                    }
+
+                    if (section != null) {
+                        store(section + "." + key, value, file, depth);
+                    }
+                } else {
+                    i = skipLine(text, i);
+                }
+            }
+        }
+
+        /**
+         * Stores parsed value or follows the include directive.
+         *
+         * @param name  full key name
+         * @param value parsed value
+         * @param file  configuration file
+         * @param depth include depth
+         */
+        private void store(@NotNull String name, @NotNull String value, @NotNull File file, int depth) {
+            if (!INCLUDE_PATH.equals(name)) {
+                values.put(name, value);
+                return;
+            }
+            if (depth >= MAX_INCLUDE_DEPTH || value.isEmpty()) {
+                return;
+            }
+
+            File include = new File(Utils.resolveUserDir(value));
+            if (!include.isAbsolute()) {
+                include = new File(file.getParentFile(), value);
+            }
+            readFile(include, depth + 1);
+        }
+
+        /**
+         * Parses section header content, i.e. <code>core</code>, <code>remote "origin"</code> or legacy
+         * <code>branch.master</code>. Section name is case-insensitive, subsection name is not.
+         *
+         * @param header content between the brackets
+         * @return section name or <code>null</code> for the skipped <code>includeIf</code> sections
+         */
+        @Nullable
+        private static String parseSection(@NotNull String header) {
+            final int quote = header.indexOf('"');
+            final String name = (quote < 0 ? header : header.substring(0, quote)).trim();
+            final int dot = name.indexOf('.');
+            final String section = (dot < 0 ? name : name.substring(0, dot)).toLowerCase(Locale.ROOT);
+            if ("includeif".equals(section)) {
+                return null;
+            }
+
+            if (quote >= 0) {
+                final StringBuilder subsection = new StringBuilder();
+                for (int i = quote + 1; i < header.length() && header.charAt(i) != '"'; i++) {
+                    char c = header.charAt(i);
+                    if (c == '\\' && i + 1 < header.length()) {
+                        c = header.charAt(++i);
+                    }
+                    subsection.append(c);
+                }
+                return section + "." + subsection;
+            }
+            return dot < 0 ? section : section + "." + name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Parses value starting at the given offset. Handles quotes, escape sequences, line continuations and
+         * comments. Whitespaces around the value are trimmed unless quoted.
+         *
+         * @param text   file content
+         * @param start  value offset
+         * @param buffer buffer for the value
+         * @return offset after the value
+         */
+        private static int parseValue(@NotNull String text, int start, @NotNull StringBuilder buffer) {
+            buffer.setLength(0);
+            boolean quoted = false;
+            int trimmed = 0;
+            int i = start;
+
+            while (i < text.length()) {
+                final char c = text.charAt(i++);
+                if (c == '\n') {
+                    break;
+                } else if (c == '"') {
+                    quoted = !quoted;
+                    trimmed = buffer.length();
+                } else if (c == '\\' && i < text.length()) {
+                    final char next = text.charAt(i++);
+                    if (next == '\r' && i < text.length() && text.charAt(i) == '\n') {
+                        i++;
+                    } else if (next != '\n') {
+                        buffer.append(next == 'n' ? '\n' : next == 't' ? '\t' : next == 'b' ? '\b' : next);
+                        trimmed = buffer.length();
+                    }
+                } else if (!quoted && (c == '#' || c == ';')) {
+                    i = skipLine(text, i);
+                    break;
+                } else if (!quoted && Character.isWhitespace(c)) {
+                    if (buffer.length() > 0) {
+                        buffer.append(c);
+                    }
+                } else {
+                    buffer.append(c);
+                    trimmed = buffer.length();
+                }
+            }
+
+            buffer.setLength(trimmed);
+            return i;
+        }
+
+        /**
+         * Returns offset of the next line.
+         *
+         * @param text  file content
+         * @param start current offset
+         * @return next line offset
+         */
+        private static int skipLine(@NotNull String text, int start) {
+            final int end = text.indexOf('\n', start);
+            return end < 0 ? text.length() : end + 1;
+        }
+    }
+}
@@ -52,6 +52,9 @@ public class Glob {
     /** Cache map that holds compiled regex. */
     private static final ConcurrentMap<String, Pattern> PATTERNS_CACHE = ContainerUtil.newConcurrentMap();
 
+    /** Cache map that holds compiled rules - including the invalid ones - by their value, syntax and mode. */
+    private static final ConcurrentMap<String, CompiledRule> RULES_CACHE = ContainerUtil.newConcurrentMap();
+
     /** Private constructor to prevent creating {@link Glob} instance. */
     private Glob() {
     }
@@ -83,15 +86,33 @@ public class Glob {
                                                            @NotNull List<IgnoreEntry> entries,
                                                            @NotNull final MatcherUtil matcher,
                                                            final boolean includeNested) {
+        final Map<IgnoreEntry, Pattern> patterns = new LinkedHashMap<>();
+        for (IgnoreEntry entry : entries) {
+            patterns.put(entry, createPattern(entry));
+        }
+        return find(root, patterns, matcher, includeNested);
+    }
+
+    /**
+     * Finds for {@link VirtualFile} list using already compiled patterns in given root directory.
+     *
+     * @param root          root directory
+     * @param patterns      ignore entries mapped with their patterns
+     * @param includeNested attach children to the search result
+     * @return search result
+     */
+    @NotNull
+    public static Map<IgnoreEntry, List<VirtualFile>> find(@NotNull final VirtualFile root,
+                                                           @NotNull Map<IgnoreEntry, Pattern> patterns,
+                                                           @NotNull final MatcherUtil matcher,
+                                                           final boolean includeNested) {
         final ConcurrentMap<IgnoreEntry, List<VirtualFile>> result = ContainerUtil.newConcurrentMap();
         final HashMap<IgnoreEntry, Pattern> map = new HashMap<>();
 
-        for (IgnoreEntry entry : entries) {
-            result.put(entry, new ArrayList<>());
-
-            final Pattern pattern = createPattern(entry);
-            if (pattern != null) {
-                map.put(entry, pattern);
+        for (Map.Entry<IgnoreEntry, Pattern> item : patterns.entrySet()) {
+            result.put(item.getKey(), new ArrayList<>());
+            if (item.getValue() != null) {
+                map.put(item.getKey(), item.getValue());
             }
         }
 
@@ -150,9 +171,36 @@ public class Glob {
                                                             @NotNull List<IgnoreEntry> entries,
                                                             @NotNull MatcherUtil matcher,
                                                             boolean includeNested) {
-        final Map<IgnoreEntry, Set<String>> result = new HashMap<>();
+        return toPaths(root, find(root, entries, matcher, includeNested));
+    }
+
+    /**
+     * Finds for {@link VirtualFile} paths list using already compiled patterns in given root directory.
+     *
+     * @param root          root directory
+     * @param patterns      ignore entries mapped with their patterns
+     * @param includeNested attach children to the search result
+     * @return search result
+     */
+    @NotNull
+    public static Map<IgnoreEntry, Set<String>> findAsPaths(@NotNull VirtualFile root,
+                                                            @NotNull Map<IgnoreEntry, Pattern> patterns,
+                                                            @NotNull MatcherUtil matcher,
+                                                            boolean includeNested) {
+        return toPaths(root, find(root, patterns, matcher, includeNested));
+    }
 
-        final Map<IgnoreEntry, List<VirtualFile>> files = find(root, entries, matcher, includeNested);
+    /**
+     * Converts found files to the paths relative to the root directory.
+     *
+     * @param root  root directory
+     * @param files found files
+     * @return relative paths
+     */
+    @NotNull
+    private static Map<IgnoreEntry, Set<String>> toPaths(@NotNull VirtualFile root,
+                                                         @NotNull Map<IgnoreEntry, List<VirtualFile>> files) {
+        final Map<IgnoreEntry, Set<String>> result = new HashMap<>();
         for (Map.Entry<IgnoreEntry, List<VirtualFile>> item : files.entrySet()) {
             final Set<String> set = new HashSet<>();
             for (VirtualFile file : item.getValue()) {
@@ -210,8 +258,31 @@ public class Glob {
     @Nullable
     public static Pattern createPattern(@NotNull String rule, @NotNull IgnoreBundle.Syntax syntax,
                                         boolean acceptChildren) {
-        final String regex = getRegex(rule, syntax, acceptChildren);
-        return getPattern(regex);
+        return compile(rule, syntax, acceptChildren).getPattern();
+    }
+
+    /**
+     * Compiles rule with caching. Each distinct rule is converted to regex and validated only once,
+     * so the result or syntax error can be shared by all the consumers.
+     *
+     * @param rule           rule value
+     * @param syntax         rule syntax
+     * @param acceptChildren Matches directory children
+     * @return compiled rule
+     */
+    @NotNull
+    public static CompiledRule compile(@NotNull String rule, @NotNull IgnoreBundle.Syntax syntax,
+                                       boolean acceptChildren) {
+        final String key = syntax.ordinal() + (acceptChildren ? "+" : "-") + rule;
+        CompiledRule compiled = RULES_CACHE.get(key);
+        if (compiled == null) {
+            compiled = CompiledRule.compile(rule, syntax, acceptChildren);
+            final CompiledRule previous = RULES_CACHE.putIfAbsent(key, compiled);
+            if (previous != null) {
+                compiled = previous;
+            }
+        }
+        return compiled;
     }
 
     /**
@@ -255,7 +326,8 @@ public class Glob {
     @NotNull
     public static String createRegex(@NotNull String glob, boolean acceptChildren) {
         glob = glob.trim();
-        String cached = GLOBS_CACHE.get(glob);
+        final String key = (acceptChildren ? "+" : "-") + glob;
+        String cached = GLOBS_CACHE.get(key);
         if (cached != null) {
             return cached;
         }
@@ -398,14 +470,15 @@ public class Glob {
         }
 
         sb.append('$');
-        GLOBS_CACHE.put(glob, sb.toString());
+        GLOBS_CACHE.put(key, sb.toString());
 
         return sb.toString();
     }
 
-    /** Clears {@link Glob#GLOBS_CACHE} cache. */
+    /** Clears {@link Glob#GLOBS_CACHE}, {@link Glob#PATTERNS_CACHE} and {@link Glob#RULES_CACHE} caches. */
     public static void clearCache() {
         GLOBS_CACHE.clear();
         PATTERNS_CACHE.clear();
+        RULES_CACHE.clear();
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.util;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable trie of the directory paths mapped with values. Allows to find the nearest registered ancestor
+ * of the given path with the cost that depends only on the path's depth.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class PathTrie<T> {
+    /** Path separator. */
+    private static final char SEPARATOR = '/';
+
+    /** Root node representing an empty path. */
+    @NotNull
+    private final Node<T> root;
+
+    /** Number of values stored in the trie. */
+    private final int size;
+
+    /**
+     * Private constructor, use {@link #create(Map)} instead.
+     *
+     * @param root root node
+     * @param size number of values
+     */
+    private PathTrie(@NotNull Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Instance creator.
+     *
+     * @param paths paths mapped with their values
+     * @return instance of {@link PathTrie}
+     */
+    @NotNull
+    public static <T> PathTrie<T> create(@NotNull Map<String, T> paths) {
+        final Node<T> root = new Node<>();
+        int size = 0;
+        for (Map.Entry<String, T> entry : paths.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+
+            Node<T> node = root;
+            final String path = entry.getKey();
+            int start = 0;
+            while (start < path.length()) {
+                int end = path.indexOf(SEPARATOR, start);
+                if (end == -1) {
+                    end = path.length();
+                }
+                if (end > start) {
+                    node = node.child(path.substring(start, end));
+                }
+                start = end + 1;
+            }
+
+            if (node.value == null) {
+                size++;
+            }
+            node.value = entry.getValue();
+        }
+        return new PathTrie<>(root, size);
+    }
+
+    /**
+     * Returns value of the deepest registered path that is equal to or is an ancestor of the given path.
+     *
+     * @param path to check
+     * @return nearest value or <code>null</code>
+     */
+    @Nullable
+    public T findNearest(@NotNull String path) {
+        Node<T> node = root;
+        T result = node.value;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf(SEPARATOR, start);
+            if (end == -1) {
+                end = path.length();
+            }
+            if (end > start) {
+                node = node.find(path, start, end);
+                if (node == null) {
+                    break;
+                }
+                if (node.value != null) {
+                    result = node.value;
+                }
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns value of the deepest registered path that is equal to or is an ancestor of the given file.
+     *
+     * @param file to check
+     * @return nearest value or <code>null</code>
+     */
+    @Nullable
+    public T findNearest(@NotNull VirtualFile file) {
+        return findNearest(file.getPath());
+    }
+
+    /**
+     * Checks if given path is equal to or is located under any of the registered paths.
+     *
+     * @param path to check
+     * @return path is under registered path
+     */
+    public boolean isUnder(@NotNull String path) {
+        return size > 0 && findNearest(path) != null;
+    }
+
+    /**
+     * Checks if given file is equal to or is located under any of the registered paths.
+     *
+     * @param file to check
+     * @return file is under registered path
+     */
+    public boolean isUnder(@NotNull VirtualFile file) {
+        return size > 0 && isUnder(file.getPath());
+    }
+
+    /**
+     * Returns number of the registered paths.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if there are no registered paths.
+     *
+     * @return trie is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Single trie node that represents one path segment. */
+    private static class Node<T> {
+        /** Child nodes mapped by the path segment. */
+        @Nullable
+        private Map<String, Node<T>> children;
+
+        /** Value assigned to the path ending at this node. */
+        @Nullable
+        private T value;
+
+        /**
+         * Returns existing or creates new child node for the given segment.
+         *
+         * @param segment path segment
+         * @return child node
+         */
+        @NotNull
+        private Node<T> child(@NotNull String segment) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(segment, key -> new Node<>());
+        }
+
+        /**
+         * Finds child node for the segment located in the given range of the path.
+         *
+         * @param path  full path
+         * @param start segment start index
+         * @param end   segment end index
+         * @return child node or <code>null</code>
+         */
+        @Nullable
+        private Node<T> find(@NotNull String path, int start, int end) {
+            return children == null ? null : children.get(path.substring(start, end));
+        }
+    }
+}
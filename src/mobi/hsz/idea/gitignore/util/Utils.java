@@ -39,11 +39,8 @@ import com.intellij.openapi.extensions.PluginId;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
-import com.intellij.openapi.roots.ModifiableRootModel;
-import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -54,6 +51,7 @@ import com.intellij.psi.PsiManager;
 import com.intellij.ui.SimpleTextAttributes;
 import com.intellij.util.containers.ContainerUtil;
 import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.ProjectRootsCacheProjectComponent;
 import mobi.hsz.idea.gitignore.command.CreateFileCommandAction;
 import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
 import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
@@ -62,7 +60,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 import static com.intellij.ui.SimpleTextAttributes.REGULAR_ATTRIBUTES;
@@ -219,23 +216,25 @@ public class Utils {
     }
 
     /**
-     * Searches for excluded roots in given {@link Project}.
+     * Returns excluded roots in given {@link Project} using the cached {@link ProjectRootsCacheProjectComponent}
+     * snapshot.
      *
      * @param project current project
      * @return list of excluded roots
      */
     public static List<VirtualFile> getExcludedRoots(@NotNull Project project) {
-        List<VirtualFile> roots = new ArrayList<>();
-        ModuleManager manager = ModuleManager.getInstance(project);
-        for (Module module : manager.getModules()) {
-            ModifiableRootModel model = ModuleRootManager.getInstance(module).getModifiableModel();
-            if (model.isDisposed()) {
-                continue;
-            }
-            Collections.addAll(roots, model.getExcludeRoots());
-            model.dispose();
-        }
-        return roots;
+        return ProjectRootsCacheProjectComponent.getInstance(project).getExcludedRoots();
+    }
+
+    /**
+     * Checks if given file is located under any of the excluded roots in given {@link Project}.
+     *
+     * @param file    file
+     * @param project current project
+     * @return file is excluded
+     */
+    public static boolean isExcluded(@NotNull VirtualFile file, @NotNull Project project) {
+        return ProjectRootsCacheProjectComponent.getInstance(project).isExcluded(file);
     }
 
     /**
@@ -307,23 +306,32 @@ public class Utils {
      */
     @Nullable
     public static Module getModuleForFile(@NotNull final VirtualFile file, @NotNull final Project project) {
-        return ContainerUtil.find(
-                ModuleManager.getInstance(project).getModules(),
-                module -> module.getModuleContentScope().contains(file)
-        );
+        return ProjectRootsCacheProjectComponent.getInstance(project).getModuleForFile(file);
     }
 
+    /**
+     * Returns the first content root of the given module if it is a directory.
+     *
+     * @param module module
+     * @return module root or null
+     */
     @Nullable
     public static VirtualFile getModuleRoot(@NotNull final Module module) {
-        final VirtualFile[] roots = ModuleRootManager.getInstance(module).getContentRoots();
-        final VirtualFile root = ContainerUtil.getFirstItem(Arrays.asList(roots));
-        return root != null && root.isDirectory() ? root : null;
+        return ProjectRootsCacheProjectComponent.getInstance(module.getProject()).getModuleRoot(module);
     }
 
+    /**
+     * Returns the root of the module that contains given file.
+     *
+     * @param file    file
+     * @param project project
+     * @return module root or null
+     */
     @Nullable
     public static VirtualFile getModuleRootForFile(@NotNull final VirtualFile file, @NotNull final Project project) {
-        Module module = getModuleForFile(file, project);
-        return module == null ? null : getModuleRoot(module);
+        final ProjectRootsCacheProjectComponent component = ProjectRootsCacheProjectComponent.getInstance(project);
+        final Module module = component.getModuleForFile(file);
+        return module == null ? null : component.getModuleRoot(module);
     }
 
     /**
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Result of the external executable call with its status, so callers can tell a missing binary, a failure,
+ * a timeout and a cancellation apart from an empty output.
+ *
+ * @param <T> output type
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class ExecResult<T> {
+    /** Status of the call. */
+    public enum Status {
+        SUCCESS, NOT_AVAILABLE, FAILED, TIMEOUT, CANCELLED
+    }
+
+    /** Exit code used when process did not exit on its own. */
+    public static final int NO_EXIT_CODE = -1;
+
+    /** Status of the call. */
+    @NotNull
+    private final Status status;
+
+    /** Parsed output, available only for {@link Status#SUCCESS}. */
+    @Nullable
+    private final T output;
+
+    /** Process exit code. */
+    private final int exitCode;
+
+    /**
+     * Constructor.
+     *
+     * @param status   status of the call
+     * @param output   parsed output
+     * @param exitCode process exit code
+     */
+    private ExecResult(@NotNull Status status, @Nullable T output, int exitCode) {
+        this.status = status;
+        this.output = output;
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * Creates successful result.
+     *
+     * @param output parsed output
+     * @param <T>    output type
+     * @return result
+     */
+    @NotNull
+    public static <T> ExecResult<T> success(@NotNull T output) {
+        return new ExecResult<>(Status.SUCCESS, output, 0);
+    }
+
+    /**
+     * Creates result of the call that failed with the given exit code.
+     *
+     * @param exitCode process exit code
+     * @param <T>      output type
+     * @return result
+     */
+    @NotNull
+    public static <T> ExecResult<T> failed(int exitCode) {
+        return new ExecResult<>(Status.FAILED, null, exitCode);
+    }
+
+    /**
+     * Creates result of the call that could not finish with the given status.
+     *
+     * @param status status of the call
+     * @param <T>    output type
+     * @return result
+     */
+    @NotNull
+    public static <T> ExecResult<T> of(@NotNull Status status) {
+        return new ExecResult<>(status, null, NO_EXIT_CODE);
+    }
+
+    /**
+     * Returns status of the call.
+     *
+     * @return status
+     */
+    @NotNull
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if call succeeded.
+     *
+     * @return call succeeded
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    /**
+     * Returns parsed output, available only for {@link Status#SUCCESS}.
+     *
+     * @return output
+     */
+    @Nullable
+    public T getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns process exit code or {@link #NO_EXIT_CODE} if process did not exit on its own.
+     *
+     * @return exit code
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+}
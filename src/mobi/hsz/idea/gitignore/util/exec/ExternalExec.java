@@ -24,23 +24,29 @@
 
 package mobi.hsz.idea.gitignore.util.exec;
 
+import com.intellij.concurrency.JobScheduler;
 import com.intellij.execution.process.BaseOSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vcs.VcsRoot;
+import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.vcsUtil.VcsUtil;
 import git4idea.config.GitExecutableManager;
 import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
 import mobi.hsz.idea.gitignore.lang.kind.GitLanguage;
+import mobi.hsz.idea.gitignore.util.GitConfigReader;
 import mobi.hsz.idea.gitignore.util.Utils;
 import mobi.hsz.idea.gitignore.util.exec.parser.ExecutionOutputParser;
-import mobi.hsz.idea.gitignore.util.exec.parser.GitExcludesOutputParser;
 import mobi.hsz.idea.gitignore.util.exec.parser.GitUnignoredFilesOutputParser;
-import mobi.hsz.idea.gitignore.util.exec.parser.SimpleOutputParser;
+import mobi.hsz.idea.gitignore.util.exec.parser.NulSeparatedOutputParser;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -48,9 +54,17 @@ import org.jetbrains.jps.service.SharedThreadPool;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Class that holds util methods for calling external executables (i.e. git/hg)
@@ -62,17 +76,26 @@ public class ExternalExec {
     /** Default external exec timeout. */
     private static final int DEFAULT_TIMEOUT = 5000;
 
+    /** Timeout value that disables the timeout. */
+    private static final int NO_TIMEOUT = 0;
+
+    /** Timeout of listing the unversioned files, which may take longer in big directories. */
+    private static final int UNIGNORED_FILES_TIMEOUT = 15000;
+
+    /** Interval of checking the timeout and the progress indicator of the running processes. */
+    private static final int WATCHDOG_INTERVAL = 100;
+
     /** Private constructor to prevent creating Icons instance. */
     private ExternalExec() {
     }
 
+    /** Null device that swallows the error stream of the streamed commands. */
+    @NotNull
+    static final File NULL_FILE = new File(SystemInfo.isWindows ? "NUL" : "/dev/null");
+
     /** Checks if Git plugin is enabled. */
     private static final boolean GIT_ENABLED = Utils.isGitPluginEnabled();
 
-    /** Git command to get user's excludesfile path. */
-    @NonNls
-    private static final String GIT_CONFIG_EXCLUDES_FILE = "config --global core.excludesfile";
-
     /** Global gitignore file located in user dir. */
     @Nullable
     public static final VirtualFile GIT_USER_IGNORE =
@@ -82,59 +105,142 @@ public class ExternalExec {
     @NonNls
     private static final String GIT_UNIGNORED_FILES = "clean -dn";
 
-    /** Git command to list ignored but tracked files. */
+    /** Git command to list ignored but tracked files, separated with NUL characters. */
+    @NonNls
+    private static final String GIT_IGNORED_FILES = "ls-files -c -i --exclude-standard -z";
+
+    /** Pathspec magic prefix that disables glob matching of the passed path. */
     @NonNls
-    private static final String GIT_IGNORED_FILES = "ls-files -i --exclude-standard";
+    private static final String LITERAL_PATHSPEC = ":(literal)";
 
     /**
-     * Returns {@link VirtualFile} instance of the Git excludes file if available.
+     * Returns {@link VirtualFile} instance of the Git excludes file if available. Path is read from the global Git
+     * configuration in-process with {@link GitConfigReader}, so no git process is spawned.
      *
      * @return Git excludes file
      */
     @Nullable
     public static VirtualFile getGitExcludesFile() {
-        return runForSingle(GitLanguage.INSTANCE, GIT_CONFIG_EXCLUDES_FILE, null, new GitExcludesOutputParser());
+        final String path = Utils.resolveUserDir(GitConfigReader.getGlobalValue("core", "excludesFile"));
+        return StringUtil.isNotEmpty(path) ? VfsUtil.findFileByIoFile(new File(path), true) : null;
     }
 
     /**
-     * Returns list of unignored files for the given directory.
+     * Returns list of unignored files for the given directory. Call does not block - result is delivered with
+     * the returned future.
      *
-     * @param language to check
-     * @param project  current project
-     * @param file     current file
-     * @return unignored files list
+     * @param language  to check
+     * @param project   current project
+     * @param file      current file
+     * @param indicator progress indicator to watch for the cancellation
+     * @return future unignored files list
      */
     @NotNull
-    public static List<String> getUnignoredFiles(@NotNull IgnoreLanguage language, @NotNull Project project,
-                                                 @NotNull VirtualFile file) {
+    public static CompletableFuture<ExecResult<List<String>>> getUnignoredFiles(@NotNull IgnoreLanguage language,
+                                                                               @NotNull Project project,
+                                                                               @NotNull VirtualFile file,
+                                                                               @Nullable ProgressIndicator indicator) {
         if (!Utils.isInProject(file, project)) {
-            return new ArrayList<>();
+            return CompletableFuture.completedFuture(ExecResult.success(Collections.emptyList()));
         }
 
-        ArrayList<String> result = run(
+        return runAsync(
                 language,
                 GIT_UNIGNORED_FILES,
                 file.getParent(),
-                new GitUnignoredFilesOutputParser()
+                new GitUnignoredFilesOutputParser(),
+                UNIGNORED_FILES_TIMEOUT,
+                indicator
         );
-        return ContainerUtil.notNullize(result);
     }
 
     /**
-     * Returns list of ignored files for the given repository.
+     * Streams ignored but tracked files of the given repository to the consumer.
      *
-     * @param vcsRoot repository to check
-     * @return unignored files list
+     * @param vcsRoot  repository to check
+     * @param consumer consumer of the paths relative to the repository root
+     * @return command succeeded and all paths were consumed
      */
-    @NotNull
-    public static List<String> getIgnoredFiles(@NotNull VcsRoot vcsRoot) {
-        ArrayList<String> result = run(
+    public static boolean processIgnoredFiles(@NotNull VcsRoot vcsRoot, @NotNull Consumer<String> consumer) {
+        return stream(
                 GitLanguage.INSTANCE,
                 GIT_IGNORED_FILES,
+                Collections.emptyList(),
                 vcsRoot.getPath(),
-                new SimpleOutputParser()
+                consumer,
+                DEFAULT_TIMEOUT,
+                null
         );
-        return ContainerUtil.notNullize(result);
+    }
+
+    /**
+     * Streams ignored but tracked files of the given repository to the consumer. Listing of a big repository may take
+     * long, so the process is not timed out - it is destroyed as soon as the indicator is canceled.
+     *
+     * @param vcsRoot   repository to check
+     * @param consumer  consumer of the paths relative to the repository root
+     * @param indicator progress indicator to watch for the cancellation
+     * @return command succeeded and all paths were consumed
+     */
+    public static boolean processIgnoredFiles(@NotNull VcsRoot vcsRoot, @NotNull Consumer<String> consumer,
+                                              @NotNull ProgressIndicator indicator) {
+        return stream(
+                GitLanguage.INSTANCE,
+                GIT_IGNORED_FILES,
+                Collections.emptyList(),
+                vcsRoot.getPath(),
+                consumer,
+                NO_TIMEOUT,
+                indicator
+        );
+    }
+
+    /**
+     * Streams ignored but tracked files of the given repository, limited to the given paths, to the consumer.
+     * Paths are passed as literal pathspecs, so directories match all of their tracked children.
+     *
+     * @param vcsRoot  repository to check
+     * @param paths    paths relative to the repository root
+     * @param consumer consumer of the paths relative to the repository root
+     * @return command succeeded and all paths were consumed
+     */
+    public static boolean processIgnoredFiles(@NotNull VcsRoot vcsRoot, @NotNull Collection<String> paths,
+                                              @NotNull Consumer<String> consumer) {
+        if (paths.isEmpty()) {
+            return true;
+        }
+
+        final List<String> arguments = new ArrayList<>(paths.size() + 1);
+        arguments.add("--");
+        for (String path : paths) {
+            arguments.add(LITERAL_PATHSPEC + path);
+        }
+        return stream(
+                GitLanguage.INSTANCE,
+                GIT_IGNORED_FILES,
+                arguments,
+                vcsRoot.getPath(),
+                consumer,
+                DEFAULT_TIMEOUT,
+                null
+        );
+    }
+
+    /**
+     * Checks the given paths against git ignore rules of the repository using a long-lived
+     * <code>git check-ignore --stdin</code> process, so no new process is spawned per query.
+     *
+     * @param root  repository root used as the working directory
+     * @param paths paths relative to the repository root
+     * @return map of path to ignored state or <code>null</code> if git is not available
+     */
+    @Nullable
+    public static Map<String, Boolean> checkIgnored(@NotNull VirtualFile root, @NotNull Collection<String> paths) {
+        final String bin = bin(GitLanguage.INSTANCE);
+        if (bin == null) {
+            return null;
+        }
+        return GitProcessPool.checkIgnore(bin, new File(root.getPath()), paths);
     }
 
     /**
@@ -154,47 +260,41 @@ public class ExternalExec {
     }
 
     /**
-     * Runs {@link IgnoreLanguage} executable with the given command and current working directory.
-     *
-     * @param language  current language
-     * @param command   to call
-     * @param directory current working directory
-     * @param parser    {@link ExecutionOutputParser} implementation
-     * @param <T>       return type
-     * @return result of the call
-     */
-    @Nullable
-    private static <T> T runForSingle(@NotNull IgnoreLanguage language, @NotNull String command,
-                                      @Nullable VirtualFile directory, @NotNull final ExecutionOutputParser<T> parser) {
-        return ContainerUtil.getFirstItem(run(language, command, directory, parser));
-    }
-
-    /**
-     * Runs {@link IgnoreLanguage} executable with the given command and current working directory.
+     * Runs {@link IgnoreLanguage} executable with the given command and current working directory without blocking
+     * the calling thread. Returned future is completed when the process terminates, when the timeout elapses or
+     * when the progress indicator is canceled - in the two latter cases the process is destroyed. Canceling
+     * the returned future destroys the process as well.
      *
      * @param language  current language
      * @param command   to call
      * @param directory current working directory
      * @param parser    {@link ExecutionOutputParser} implementation
+     * @param timeout   timeout in milliseconds
+     * @param indicator progress indicator to watch for the cancellation
      * @param <T>       return type
-     * @return result of the call
+     * @return future result of the call
      */
-    @Nullable
-    private static <T> ArrayList<T> run(@NotNull IgnoreLanguage language,
-                                        @NotNull String command,
-                                        @Nullable VirtualFile directory,
-                                        @Nullable final ExecutionOutputParser<T> parser) {
+    @NotNull
+    private static <T> CompletableFuture<ExecResult<List<T>>> runAsync(
+            @NotNull IgnoreLanguage language,
+            @NotNull String command,
+            @Nullable VirtualFile directory,
+            @NotNull final ExecutionOutputParser<T> parser,
+            long timeout,
+            @Nullable ProgressIndicator indicator) {
+        final CompletableFuture<ExecResult<List<T>>> future = new CompletableFuture<>();
         final String bin = bin(language);
         if (bin == null) {
-            return null;
+            future.complete(ExecResult.of(ExecResult.Status.NOT_AVAILABLE));
+            return future;
         }
 
         try {
-            final String cmd = bin + " " + command;
+            final List<String> commandLine = commandLine(bin, command, Collections.emptyList());
             final File workingDirectory = directory != null ? new File(directory.getPath()) : null;
-            final Process process = Runtime.getRuntime().exec(cmd, null, workingDirectory);
+            final Process process = new ProcessBuilder(commandLine).directory(workingDirectory).start();
 
-            ProcessHandler handler = new BaseOSProcessHandler(process, StringUtil.join(cmd, " "), null) {
+            final ProcessHandler handler = new BaseOSProcessHandler(process, StringUtil.join(commandLine, " "), null) {
                 @NotNull
                 @Override
                 public Future<?> executeTask(@NotNull Runnable task) {
@@ -203,26 +303,112 @@ public class ExternalExec {
 
                 @Override
                 public void notifyTextAvailable(@NotNull String text, @NotNull Key outputType) {
-                    if (parser != null) {
-                        parser.onTextAvailable(text, outputType);
-                    }
+                    parser.onTextAvailable(text, outputType);
                 }
             };
+            handler.addProcessListener(new ProcessAdapter() {
+                @Override
+                public void processTerminated(@NotNull ProcessEvent event) {
+                    parser.notifyFinished(event.getExitCode());
+                    future.complete(parser.isErrorsReported() ?
+                            ExecResult.failed(event.getExitCode()) :
+                            ExecResult.success(ContainerUtil.notNullize(parser.getOutput())));
+                }
+            });
+
+            final long deadline = System.currentTimeMillis() + timeout;
+            final ScheduledFuture<?> watchdog = JobScheduler.getScheduler().scheduleWithFixedDelay(() -> {
+                if (indicator != null && indicator.isCanceled()) {
+                    future.complete(ExecResult.of(ExecResult.Status.CANCELLED));
+                } else if (System.currentTimeMillis() > deadline) {
+                    future.complete(ExecResult.of(ExecResult.Status.TIMEOUT));
+                }
+            }, WATCHDOG_INTERVAL, WATCHDOG_INTERVAL, TimeUnit.MILLISECONDS);
 
+            future.whenComplete((result, throwable) -> {
+                watchdog.cancel(false);
+                if (!handler.isProcessTerminated()) {
+                    handler.destroyProcess();
+                }
+            });
             handler.startNotify();
-            if (!handler.waitFor(DEFAULT_TIMEOUT)) {
-                return null;
-            }
-            if (parser != null) {
-                parser.notifyFinished(process.exitValue());
-                if (parser.isErrorsReported()) {
-                    return null;
+        } catch (IOException e) {
+            future.complete(ExecResult.failed(ExecResult.NO_EXIT_CODE));
+        }
+
+        return future;
+    }
+
+    /**
+     * Runs {@link IgnoreLanguage} executable with the given command, additional arguments and current working
+     * directory, reading its NUL-separated output with {@link NulSeparatedOutputParser}. Every record is pushed to the
+     * consumer as soon as it is read. Process is terminated after the timeout, when the indicator is canceled or when
+     * the consumer throws an exception, which is rethrown. Blocking read of the output cannot be
+     * interrupted, so the process is destroyed by a watchdog instead.
+     *
+     * @param language  current language
+     * @param command   to call
+     * @param arguments additional arguments
+     * @param directory current working directory
+     * @param consumer  consumer of the output records
+     * @param timeout   timeout in milliseconds or {@link #NO_TIMEOUT}
+     * @param indicator progress indicator to watch for the cancellation
+     * @return command succeeded and all records were consumed
+     */
+    private static boolean stream(@NotNull IgnoreLanguage language,
+                                  @NotNull String command,
+                                  @NotNull List<String> arguments,
+                                  @Nullable VirtualFile directory,
+                                  @NotNull Consumer<String> consumer,
+                                  long timeout,
+                                  @Nullable ProgressIndicator indicator) {
+        final String bin = bin(language);
+        if (bin == null) {
+            return false;
+        }
+
+        try {
+            final Process process = new ProcessBuilder(commandLine(bin, command, arguments))
+                    .directory(directory != null ? new File(directory.getPath()) : null)
+                    .redirectError(ProcessBuilder.Redirect.appendTo(NULL_FILE))
+                    .start();
+            final long deadline = timeout == NO_TIMEOUT ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+            final ScheduledFuture<?> watchdog = JobScheduler.getScheduler().scheduleWithFixedDelay(() -> {
+                if ((indicator != null && indicator.isCanceled()) || System.currentTimeMillis() > deadline) {
+                    process.destroy();
                 }
-                return parser.getOutput();
+            }, WATCHDOG_INTERVAL, WATCHDOG_INTERVAL, TimeUnit.MILLISECONDS);
+            try (InputStream stream = process.getInputStream()) {
+                new NulSeparatedOutputParser(consumer).parse(stream);
+            } catch (RuntimeException e) {
+                process.destroy();
+                throw e;
+            } finally {
+                watchdog.cancel(false);
             }
+            return process.waitFor() == 0;
         } catch (IOException ignored) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
-        return null;
+        return false;
+    }
+
+    /**
+     * Builds command line from the binary path, command and additional arguments.
+     *
+     * @param bin       path to binary
+     * @param command   command separated with whitespaces
+     * @param arguments additional arguments
+     * @return command line
+     */
+    @NotNull
+    private static List<String> commandLine(@NotNull String bin, @NotNull String command,
+                                            @NotNull List<String> arguments) {
+        final List<String> commandLine = ContainerUtil.newArrayList(bin);
+        commandLine.addAll(StringUtil.split(command, " "));
+        commandLine.addAll(arguments);
+        return commandLine;
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.openapi.util.io.StreamUtil;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Long-lived <code>git check-ignore --stdin</code> process bound to a single working directory. Paths are written to
+ * the process input NUL-terminated and answered with NUL-delimited verbose records, so a single process can verify
+ * any number of paths without paying the process spawn cost again. Paths are sent one at a time and every answer is
+ * read before the next path is written, so neither side blocks on a full pipe, whatever the pipe buffer size is.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class GitCheckIgnoreProcess implements Closeable {
+    /**
+     * Git command arguments that start the check-ignore batch mode. Index is not consulted, so tracked files are
+     * matched against the rules as well.
+     */
+    @NonNls
+    private static final String[] COMMAND = {"check-ignore", "--no-index", "--stdin", "-z", "-v", "--non-matching"};
+
+    /** Number of NUL-terminated fields of a single verbose record: source, line number, pattern and path. */
+    private static final int RECORD_FIELDS = 4;
+
+    /** Running git process. */
+    @NotNull
+    private final Process process;
+
+    /** Process input the paths are written to. */
+    @NotNull
+    private final OutputStream input;
+
+    /** Process output the records are read from. */
+    @NotNull
+    private final InputStream output;
+
+    /**
+     * Constructor.
+     *
+     * @param process running git process
+     */
+    private GitCheckIgnoreProcess(@NotNull Process process) {
+        this.process = process;
+        this.input = new BufferedOutputStream(process.getOutputStream());
+        this.output = new BufferedInputStream(process.getInputStream());
+    }
+
+    /**
+     * Starts new check-ignore process in the given working directory.
+     *
+     * @param bin       path to the git executable
+     * @param directory working directory
+     * @return started process
+     * @throws IOException if process could not be started
+     */
+    @NotNull
+    public static GitCheckIgnoreProcess start(@NotNull String bin, @NotNull File directory) throws IOException {
+        final List<String> command = new ArrayList<>(COMMAND.length + 1);
+        command.add(bin);
+        command.addAll(Arrays.asList(COMMAND));
+
+        final ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectError(ProcessBuilder.Redirect.appendTo(ExternalExec.NULL_FILE));
+        // check-ignore buffers its output when not attached to a terminal unless asked to flush after each record
+        builder.environment().put("GIT_FLUSH", "1");
+        return new GitCheckIgnoreProcess(builder.start());
+    }
+
+    /**
+     * Checks if process is still running and able to answer.
+     *
+     * @return process is alive
+     */
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Checks the given paths, relative to the working directory, against git ignore rules. Each path is written and
+     * flushed separately and its record is read back before the next one is written - git flushes every record, so
+     * the round trip is short, while writing many paths ahead could fill the output pipe that nobody reads yet.
+     *
+     * @param paths paths to check
+     * @return map of path to ignored state
+     * @throws IOException if process terminated or returned malformed output
+     */
+    @NotNull
+    public synchronized Map<String, Boolean> check(@NotNull Collection<String> paths) throws IOException {
+        final Map<String, Boolean> result = new HashMap<>(paths.size());
+        for (String path : paths) {
+            input.write(path.getBytes(StandardCharsets.UTF_8));
+            input.write(0);
+            input.flush();
+            readRecords(output, 1, result);
+        }
+        return result;
+    }
+
+    /**
+     * Reads given number of verbose <code>-z</code> records. Path is considered ignored if it was matched by
+     * a pattern which is not a negation.
+     *
+     * @param stream stream to read
+     * @param count  number of records
+     * @param result map to fill
+     * @throws IOException if stream ended before all records were read
+     */
+    static void readRecords(@NotNull InputStream stream, int count, @NotNull Map<String, Boolean> result)
+            throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final String[] fields = new String[RECORD_FIELDS];
+
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < RECORD_FIELDS; j++) {
+                fields[j] = readField(stream, buffer);
+            }
+            final String pattern = fields[2];
+            result.put(fields[3], !pattern.isEmpty() && pattern.charAt(0) != '!');
+        }
+    }
+
+    /**
+     * Reads single NUL-terminated field.
+     *
+     * @param stream stream to read
+     * @param buffer reusable buffer
+     * @return field value
+     * @throws IOException if stream ended before the terminator
+     */
+    @NotNull
+    private static String readField(@NotNull InputStream stream, @NotNull ByteArrayOutputStream buffer)
+            throws IOException {
+        buffer.reset();
+        int b;
+        while ((b = stream.read()) != 0) {
+            if (b < 0) {
+                throw new EOFException();
+            }
+            buffer.write(b);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Kills the process without touching its streams, so the thread blocked on reading the answer gets the end of
+     * the stream. Safe to call from any thread.
+     */
+    void terminate() {
+        process.destroy();
+    }
+
+    /** Terminates the process. */
+    @Override
+    public void close() {
+        StreamUtil.closeStream(input);
+        StreamUtil.closeStream(output);
+        process.destroy();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.containers.ContainerUtil;
+import mobi.hsz.idea.gitignore.util.Utils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifies ignored status of files with the pooled <code>git check-ignore</code> process of their repository.
+ * Answers are returned only from the cache, so callers on the UI thread never wait for git. Missing answers are
+ * requested in the background and the update callback is invoked once they are available. Unknown siblings of the
+ * requested file are sent in the same batch, since the project view and file status providers usually ask for
+ * a whole directory at once. Answers are cached until {@link #clear()} is called, which has to happen whenever
+ * the ignore or exclude files change.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class GitCheckIgnoreVerifier {
+    /** Maximum amount of paths sent to git in a single batch. */
+    private static final int MAX_BATCH_SIZE = 256;
+
+    /** Sequential executor that talks to git, shared by all projects. */
+    @NotNull
+    private static final ExecutorService EXECUTOR =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("GitCheckIgnoreVerifier", 1);
+
+    /** Cached answers. */
+    @NotNull
+    private final ConcurrentMap<VirtualFile, Boolean> cache = ContainerUtil.createConcurrentWeakMap();
+
+    /** Repository roots that were asked since the last {@link #clear()}. */
+    @NotNull
+    private final Set<VirtualFile> roots = ContainerUtil.newConcurrentSet();
+
+    /** Files with the requests waiting for git. */
+    @NotNull
+    private final Set<VirtualFile> pending = ContainerUtil.newConcurrentSet();
+
+    /** Cache generation, incremented on {@link #clear()} to drop answers of the requests started before. */
+    @NotNull
+    private final AtomicLong generation = new AtomicLong();
+
+    /** Callback invoked when new answers are cached. */
+    @NotNull
+    private final Runnable onUpdate;
+
+    /**
+     * Constructor.
+     *
+     * @param onUpdate callback invoked on a pooled thread when new answers are cached
+     */
+    public GitCheckIgnoreVerifier(@NotNull Runnable onUpdate) {
+        this.onUpdate = onUpdate;
+    }
+
+    /**
+     * Returns cached answer if file is ignored by git rules of the given repository. If the answer is not cached yet,
+     * it is requested in the background.
+     *
+     * @param root repository root
+     * @param file file to check
+     * @return file is ignored or <code>null</code> if the answer is not known yet
+     */
+    @Nullable
+    public Boolean isIgnored(@NotNull VirtualFile root, @NotNull VirtualFile file) {
+        final Boolean cached = cache.get(file);
+        if (cached == null && pending.add(file)) {
+            final long requested = generation.get();
+            roots.add(root);
+            EXECUTOR.execute(() -> {
+                try {
+                    if (requested == generation.get() && !cache.containsKey(file)) {
+                        verify(root, file, requested);
+                    }
+                } finally {
+                    pending.remove(file);
+                }
+            });
+        }
+        return cached;
+    }
+
+    /**
+     * Asks git about the file and its unknown siblings and caches the answers, unless the cache was cleared
+     * in the meantime.
+     *
+     * @param root      repository root
+     * @param file      file to check
+     * @param requested cache generation of the request
+     */
+    private void verify(@NotNull VirtualFile root, @NotNull VirtualFile file, long requested) {
+        final Map<String, VirtualFile> batch = new LinkedHashMap<>();
+        if (!addPath(root, file, batch)) {
+            return;
+        }
+
+        final VirtualFile parent = file.getParent();
+        if (parent != null && parent.isValid()) {
+            for (VirtualFile sibling : parent.getChildren()) {
+                if (batch.size() >= MAX_BATCH_SIZE) {
+                    break;
+                }
+                if (!cache.containsKey(sibling)) {
+                    addPath(root, sibling, batch);
+                }
+            }
+        }
+
+        final Map<String, Boolean> result = ExternalExec.checkIgnored(root, batch.keySet());
+        if (result == null || requested != generation.get()) {
+            return;
+        }
+
+        for (Map.Entry<String, VirtualFile> entry : batch.entrySet()) {
+            final Boolean ignored = result.get(entry.getKey());
+            if (ignored != null) {
+                cache.put(entry.getValue(), ignored);
+            }
+        }
+
+        // cleared while the answers were stored - requests are sequential, so only this batch has to be dropped
+        if (requested != generation.get()) {
+            cache.keySet().removeAll(batch.values());
+            return;
+        }
+        onUpdate.run();
+    }
+
+    /**
+     * Adds file path relative to the repository root to the batch.
+     *
+     * @param root  repository root
+     * @param file  file to add
+     * @param batch batch to fill
+     * @return path was added
+     */
+    private static boolean addPath(@NotNull VirtualFile root, @NotNull VirtualFile file,
+                                   @NotNull Map<String, VirtualFile> batch) {
+        final String path = Utils.getRelativePath(root, file);
+        if (path == null || path.isEmpty() || path.charAt(0) == '/' || !file.isValid()) {
+            return false;
+        }
+        batch.put(path, file);
+        return true;
+    }
+
+    /**
+     * Clears cached answers and drops answers of the requests that are still running. Pooled git processes of
+     * the asked repositories are closed before any later request is sent, because they keep the old ignore rules.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+
+        final List<VirtualFile> used = new ArrayList<>(roots);
+        roots.removeAll(used);
+        EXECUTOR.execute(() -> {
+            for (VirtualFile root : used) {
+                GitProcessPool.close(new File(root.getPath()));
+            }
+        });
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.openapi.util.ShutDownTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small pool of long-lived {@link GitCheckIgnoreProcess} instances, one per git binary and working directory.
+ * Least recently used processes are terminated when the pool is full and all of them are terminated on shutdown.
+ * Git reads the ignore rules only once per process, so processes have to be closed with {@link #close(File)} when
+ * the ignore or exclude files of their repository change.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public final class GitProcessPool {
+    /** Maximum amount of processes kept alive at the same time. */
+    private static final int MAX_PROCESSES = 8;
+
+    /** Time after which the process that did not answer all the paths is terminated. */
+    private static final int CHECK_TIMEOUT = 5000;
+
+    /** Running processes in the access order. */
+    private static final LinkedHashMap<String, GitCheckIgnoreProcess> PROCESSES =
+            new LinkedHashMap<String, GitCheckIgnoreProcess>(MAX_PROCESSES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GitCheckIgnoreProcess> eldest) {
+                    if (size() > MAX_PROCESSES) {
+                        eldest.getValue().close();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    static {
+        ShutDownTracker.getInstance().registerShutdownTask(GitProcessPool::closeAll);
+    }
+
+    /** Private constructor to prevent creating {@link GitProcessPool} instance. */
+    private GitProcessPool() {
+    }
+
+    /**
+     * Checks the given paths against git ignore rules using pooled process for the given working directory.
+     * Process that failed to answer, or did not answer within {@link #CHECK_TIMEOUT}, is terminated and replaced on
+     * the next call.
+     *
+     * @param bin       path to the git executable
+     * @param directory working directory
+     * @param paths     paths relative to the working directory
+     * @return map of path to ignored state or <code>null</code> if git could not answer
+     */
+    @Nullable
+    public static Map<String, Boolean> checkIgnore(@NotNull String bin, @NotNull File directory,
+                                                   @NotNull Collection<String> paths) {
+        final String key = bin + '\0' + directory.getPath();
+        GitCheckIgnoreProcess process = null;
+        try {
+            process = acquire(key, bin, directory);
+            final ScheduledFuture<?> timeout = JobScheduler.getScheduler().schedule(
+                    process::terminate, CHECK_TIMEOUT, TimeUnit.MILLISECONDS
+            );
+            try {
+                return process.check(paths);
+            } finally {
+                timeout.cancel(false);
+            }
+        } catch (IOException e) {
+            if (process != null) {
+                release(key, process);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns alive process for the given key, starting a new one if needed.
+     *
+     * @param key       pool key
+     * @param bin       path to the git executable
+     * @param directory working directory
+     * @return alive process
+     * @throws IOException if process could not be started
+     */
+    @NotNull
+    private static synchronized GitCheckIgnoreProcess acquire(@NotNull String key, @NotNull String bin,
+                                                              @NotNull File directory) throws IOException {
+        GitCheckIgnoreProcess process = PROCESSES.get(key);
+        if (process == null || !process.isAlive()) {
+            if (process != null) {
+                process.close();
+            }
+            process = GitCheckIgnoreProcess.start(bin, directory);
+            PROCESSES.put(key, process);
+        }
+        return process;
+    }
+
+    /**
+     * Terminates broken process and removes it from the pool.
+     *
+     * @param key     pool key
+     * @param process broken process
+     */
+    private static synchronized void release(@NotNull String key, @NotNull GitCheckIgnoreProcess process) {
+        if (PROCESSES.get(key) == process) {
+            PROCESSES.remove(key);
+        }
+        process.close();
+    }
+
+    /**
+     * Terminates pooled processes of the given working directory, so the next check starts a new process that reads
+     * the current ignore rules.
+     *
+     * @param directory working directory
+     */
+    public static void close(@NotNull File directory) {
+        final String suffix = '\0' + directory.getPath();
+        final List<GitCheckIgnoreProcess> processes = new ArrayList<>();
+        synchronized (GitProcessPool.class) {
+            final Iterator<Map.Entry<String, GitCheckIgnoreProcess>> iterator = PROCESSES.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, GitCheckIgnoreProcess> entry = iterator.next();
+                if (entry.getKey().endsWith(suffix)) {
+                    processes.add(entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        for (GitCheckIgnoreProcess process : processes) {
+            process.close();
+        }
+    }
+
+    /** Terminates all pooled processes. */
+    public static void closeAll() {
+        final List<GitCheckIgnoreProcess> processes;
+        synchronized (GitProcessPool.class) {
+            processes = new ArrayList<>(PROCESSES.values());
+            PROCESSES.clear();
+        }
+        for (GitCheckIgnoreProcess process : processes) {
+            process.close();
+        }
+    }
+}
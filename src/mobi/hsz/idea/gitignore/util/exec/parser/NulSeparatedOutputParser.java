@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec.parser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for the NUL-separated (<code>-z</code>) output of the external executables. Bytes are read
+ * directly from the process output and every record is decoded as soon as its terminator arrives and pushed to the
+ * consumer, so the whole output is never held in memory. Records split between the read chunks are carried over.
+ *
+ * @author Jakub Chrzanowski <jakub@hsz.mobi>
+ * @since 3.3.0
+ */
+public class NulSeparatedOutputParser {
+    /** Size of the chunk read from the stream at once. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Consumer of the decoded records. */
+    @NotNull
+    private final Consumer<String> consumer;
+
+    /** Beginning of the record that was not terminated in the previous chunk. */
+    @NotNull
+    private byte[] pending = new byte[256];
+
+    /** Length of the {@link #pending} record part. */
+    private int pendingLength;
+
+    /**
+     * Constructor.
+     *
+     * @param consumer consumer of the decoded records
+     */
+    public NulSeparatedOutputParser(@NotNull Consumer<String> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Reads the whole stream and pushes all records to the consumer.
+     *
+     * @param stream process output
+     * @throws IOException if stream could not be read
+     */
+    public void parse(@NotNull InputStream stream) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = stream.read(buffer)) >= 0) {
+            feed(buffer, 0, read);
+        }
+        finish();
+    }
+
+    /**
+     * Handles single chunk of the output.
+     *
+     * @param data   chunk data
+     * @param offset chunk offset
+     * @param length chunk length
+     */
+    public void feed(@NotNull byte[] data, int offset, int length) {
+        final int end = offset + length;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            if (data[i] != 0) {
+                continue;
+            }
+            if (pendingLength > 0) {
+                append(data, start, i - start);
+                emit(pending, 0, pendingLength);
+                pendingLength = 0;
+            } else {
+                emit(data, start, i - start);
+            }
+            start = i + 1;
+        }
+        append(data, start, end - start);
+    }
+
+    /** Pushes the last record if the output did not end with the terminator. */
+    public void finish() {
+        emit(pending, 0, pendingLength);
+        pendingLength = 0;
+    }
+
+    /**
+     * Appends not terminated record part to {@link #pending}.
+     *
+     * @param data   chunk data
+     * @param offset part offset
+     * @param length part length
+     */
+    private void append(@NotNull byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        System.arraycopy(data, offset, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    /**
+     * Decodes record and pushes it to the consumer. Empty records are skipped.
+     *
+     * @param data   record data
+     * @param offset record offset
+     * @param length record length
+     */
+    private void emit(@NotNull byte[] data, int offset, int length) {
+        if (length > 0) {
+            consumer.accept(new String(data, offset, length, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -24,6 +24,7 @@
 
 package mobi.hsz.idea.gitignore;
 
+import com.intellij.openapi.application.WriteAction;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
@@ -32,6 +33,7 @@ import mobi.hsz.idea.gitignore.psi.IgnoreVisitor;
 import mobi.hsz.idea.gitignore.util.Constants;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
@@ -73,4 +75,14 @@ public abstract class Common<T> extends LightPlatformCodeInsightFixtureTestCase
         return children;
     }
 
+    @NotNull
+    protected VirtualFile createFile(@NotNull VirtualFile parent, @NotNull String name) throws IOException {
+        return WriteAction.compute(() -> parent.createChildData(this, name));
+    }
+
+    @NotNull
+    protected VirtualFile createDirectory(@NotNull VirtualFile parent, @NotNull String name) throws IOException {
+        return WriteAction.compute(() -> parent.createChildDirectory(this, name));
+    }
+
 }
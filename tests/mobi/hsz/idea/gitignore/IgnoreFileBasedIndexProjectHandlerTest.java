@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class IgnoreFileBasedIndexProjectHandlerTest extends Common<IgnoreFileBasedIndexProjectHandler> {
+
+    @Test
+    public void testIterateFiles() throws IOException {
+        final VirtualFile home = myFixture.getTempDirFixture().findOrCreateDir("home");
+        final VirtualFile outer = createFile(home, ".gitignore");
+        final VirtualFile nested = createFile(createDirectory(home, "nested"), ".hgignore");
+        final VirtualFile other = createFile(myFixture.getTempDirFixture().findOrCreateDir("other"), ".gitignore");
+        final VirtualFile text = createFile(home, "file.txt");
+
+        final List<VirtualFile> result = new ArrayList<>();
+        IgnoreFileBasedIndexProjectHandler.iterateFiles(home, Arrays.asList(outer, nested, other, text), result::add);
+
+        assertEquals(2, result.size());
+        assertContainsElements(result, outer, nested);
+    }
+
+    @Test
+    public void testIterateFilesSkipsInvalidFilesAndDirectories() throws IOException {
+        final VirtualFile home = myFixture.getTempDirFixture().findOrCreateDir("home");
+        final VirtualFile directory = createDirectory(home, "dir");
+        final VirtualFile deleted = createFile(directory, ".gitignore");
+        final VirtualFile valid = createFile(directory, ".hgignore");
+        WriteAction.run(() -> deleted.delete(this));
+
+        final List<VirtualFile> result = new ArrayList<>();
+        IgnoreFileBasedIndexProjectHandler.iterateFiles(home, Arrays.asList(directory, deleted, valid), result::add);
+
+        assertEquals(1, result.size());
+        assertContainsElements(result, valid);
+    }
+
+    @Test
+    public void testIterateFilesStops() throws IOException {
+        final VirtualFile home = myFixture.getTempDirFixture().findOrCreateDir("home");
+        final VirtualFile first = createFile(home, ".gitignore");
+        final VirtualFile second = createFile(home, ".hgignore");
+
+        final List<VirtualFile> result = new ArrayList<>();
+        IgnoreFileBasedIndexProjectHandler.iterateFiles(home, Arrays.asList(first, second), file -> {
+            result.add(file);
+            return false;
+        });
+
+        assertEquals(1, result.size());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vcs.VcsRoot;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class IgnoreManagerTest extends Common<IgnoreManager> {
+
+    @Test
+    public void testMergeChanged() throws IOException {
+        final VirtualFile home = myFixture.getTempDirFixture().findOrCreateDir("home");
+        final VirtualFile changed = createDirectory(home, "changed");
+        final VirtualFile unmatched = createFile(changed, "unmatched.txt");
+        final VirtualFile matched = createFile(changed, "matched.txt");
+        final VirtualFile other = createFile(home, "other.txt");
+        final VcsRoot root = new VcsRoot(null, home);
+
+        final Map<VirtualFile, VcsRoot> confirmed = new HashMap<>();
+        confirmed.put(unmatched, root);
+        confirmed.put(other, root);
+
+        assertTrue(IgnoreManager.mergeChanged(
+                confirmed,
+                Collections.singletonList(changed),
+                Collections.singletonMap(matched, root)
+        ));
+        assertEquals(2, confirmed.size());
+        assertContainsElements(confirmed.keySet(), matched, other);
+    }
+
+    @Test
+    public void testMergeChangedRemovesInvalidFiles() throws IOException {
+        final VirtualFile home = myFixture.getTempDirFixture().findOrCreateDir("home");
+        final VirtualFile deleted = createFile(home, "deleted.txt");
+        final VirtualFile other = createFile(home, "other.txt");
+        final VcsRoot root = new VcsRoot(null, home);
+
+        final Map<VirtualFile, VcsRoot> confirmed = new HashMap<>();
+        confirmed.put(deleted, root);
+        confirmed.put(other, root);
+        WriteAction.run(() -> deleted.delete(this));
+
+        assertTrue(IgnoreManager.mergeChanged(confirmed, Collections.singletonList(deleted), Collections.emptyMap()));
+        assertEquals(1, confirmed.size());
+        assertContainsElements(confirmed.keySet(), other);
+    }
+
+    @Test
+    public void testMergeChangedUnmodified() throws IOException {
+        final VirtualFile home = myFixture.getTempDirFixture().findOrCreateDir("home");
+        final VirtualFile file = createFile(home, "file.txt");
+        final VcsRoot root = new VcsRoot(null, home);
+
+        final Map<VirtualFile, VcsRoot> confirmed = new HashMap<>();
+        confirmed.put(file, root);
+
+        assertFalse(IgnoreManager.mergeChanged(
+                confirmed,
+                Collections.singletonList(file),
+                Collections.singletonMap(file, root)
+        ));
+        assertEquals(1, confirmed.size());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.indexing;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import mobi.hsz.idea.gitignore.Common;
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.file.type.kind.GitFileType;
+import mobi.hsz.idea.gitignore.util.Glob;
+import mobi.hsz.idea.gitignore.util.MatcherUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IgnoreEntryOccurrenceTest extends Common<IgnoreEntryOccurrence> {
+
+    @Test
+    public void testSerialization() throws IOException {
+        final IgnoreEntryOccurrence entry = createEntry(20);
+        final IgnoreEntryOccurrence read = IgnoreEntryOccurrence.deserialize(
+                new DataInputStream(new ByteArrayInputStream(serialize(entry)))
+        );
+
+        assertEquals(entry, read);
+        assertEquals(entry.hashCode(), read.hashCode());
+        assertEquals(entry.getFile(), read.getFile());
+        assertEquals(20, read.getItems().size());
+        assertTrue(read.getItems().get(1).isNegated());
+        assertFalse(read.getItems().get(2).isNegated());
+    }
+
+    @Test
+    public void testEquality() {
+        final IgnoreEntryOccurrence entry = createEntry(5);
+        final VirtualFile file = entry.getFile();
+        assertNotNull(file);
+
+        final List<IgnoreEntryOccurrence.Item> items = new ArrayList<>(entry.getItems());
+        assertEquals(entry, new IgnoreEntryOccurrence(file, items));
+        assertEquals(entry.hashCode(), new IgnoreEntryOccurrence(file, items).hashCode());
+
+        items.set(0, new IgnoreEntryOccurrence.Item(items.get(0).getGlob(), items.get(0).getSyntax(), true));
+        assertFalse(entry.equals(new IgnoreEntryOccurrence(file, items)));
+    }
+
+    @Test
+    public void testRuleSet() {
+        final IgnoreEntryOccurrence entry = createEntry(5);
+        final VirtualFile other = myFixture.addFileToProject("sub/.gitignore", "").getVirtualFile();
+        final IgnoreEntryOccurrence copy = new IgnoreEntryOccurrence(other, new ArrayList<>(entry.getItems()));
+
+        final CompiledRuleSet ruleSet = entry.getRuleSet();
+        assertSame(ruleSet, copy.getRuleSet());
+        assertEquals(5, ruleSet.size());
+
+        final MatcherUtil matcher = new MatcherUtil();
+        assertEquals(-1, ruleSet.findLastMatch(matcher, "foo.log"));
+        assertEquals(1, ruleSet.findLastMatch(matcher, "dir1/foo/bar.log"));
+        assertTrue(ruleSet.isNegated(1));
+        assertFalse(ruleSet.isNegated(2));
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        try {
+            IgnoreEntryOccurrence.deserialize(new DataInputStream(new ByteArrayInputStream(new byte[]{127})));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testCompactSize() throws IOException {
+        final IgnoreEntryOccurrence entry = createEntry(1000);
+        assertTrue(serialize(entry).length < serializeLegacy(entry).length);
+    }
+
+    @NotNull
+    private IgnoreEntryOccurrence createEntry(int size) {
+        myFixture.configureByText(GitFileType.INSTANCE, "");
+        final VirtualFile file = myFixture.getFile().getVirtualFile();
+
+        final List<IgnoreEntryOccurrence.Item> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(new IgnoreEntryOccurrence.Item("dir" + i + "/**/*.log", IgnoreBundle.Syntax.GLOB, i % 3 == 1));
+        }
+        return new IgnoreEntryOccurrence(file, items);
+    }
+
+    @NotNull
+    private static byte[] serialize(@NotNull IgnoreEntryOccurrence entry) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        IgnoreEntryOccurrence.serialize(new DataOutputStream(stream), entry);
+        return stream.toByteArray();
+    }
+
+    /** Previous format: full URL and expanded regex with a boolean per item. */
+    @NotNull
+    private static byte[] serializeLegacy(@NotNull IgnoreEntryOccurrence entry) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(stream);
+        final VirtualFile file = entry.getFile();
+        out.writeUTF(file == null ? "" : file.getUrl());
+        out.writeInt(entry.getItems().size());
+        for (IgnoreEntryOccurrence.Item item : entry.getItems()) {
+            out.writeUTF(Glob.getRegex(item.getGlob(), item.getSyntax(), false));
+            out.writeBoolean(item.isNegated());
+        }
+        return stream.toByteArray();
+    }
+}
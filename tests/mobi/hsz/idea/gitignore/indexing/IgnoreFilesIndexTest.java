@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.indexing;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.io.DataExternalizer;
+import mobi.hsz.idea.gitignore.Common;
+import mobi.hsz.idea.gitignore.IgnoreBundle;
+import mobi.hsz.idea.gitignore.file.type.kind.GitFileType;
+import mobi.hsz.idea.gitignore.lang.IgnoreLanguage;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class IgnoreFilesIndexTest extends Common<IgnoreFilesIndex> {
+
+    @Test
+    public void testKeyDescriptor() throws IOException {
+        final IgnoreFilesIndex index = new IgnoreFilesIndex();
+        for (IgnoreLanguage language : IgnoreBundle.LANGUAGES) {
+            final IgnoreFileTypeKey key = new IgnoreFileTypeKey(language.getFileType());
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            index.save(new DataOutputStream(stream), key);
+
+            final IgnoreFileTypeKey read = index.read(new DataInputStream(new ByteArrayInputStream(stream.toByteArray())));
+            assertEquals(key, read);
+        }
+    }
+
+    @Test
+    public void testConcurrentExternalizers() throws Exception {
+        myFixture.configureByText(GitFileType.INSTANCE, "");
+        final VirtualFile file = myFixture.getFile().getVirtualFile();
+
+        final IgnoreFilesIndex index = new IgnoreFilesIndex();
+        final DataExternalizer<IgnoreEntryOccurrence> externalizer = index.getValueExternalizer();
+        final List<IgnoreLanguage> languages = new ArrayList<>(IgnoreBundle.LANGUAGES);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                final int seed = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        final IgnoreLanguage language = languages.get((seed + i) % languages.size());
+                        final IgnoreFileTypeKey key = new IgnoreFileTypeKey(language.getFileType());
+
+                        final List<IgnoreEntryOccurrence.Item> items = new ArrayList<>();
+                        for (int j = 0; j <= i % 10; j++) {
+                            items.add(new IgnoreEntryOccurrence.Item(seed + "/" + i + "/" + j,
+                                    language.getDefaultSyntax(), j % 2 == 0));
+                        }
+                        final IgnoreEntryOccurrence value = new IgnoreEntryOccurrence(file, items);
+
+                        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                        final DataOutputStream out = new DataOutputStream(stream);
+                        index.save(out, key);
+                        externalizer.save(out, value);
+
+                        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(stream.toByteArray()));
+                        if (!key.equals(index.read(in)) || !value.equals(externalizer.read(in))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
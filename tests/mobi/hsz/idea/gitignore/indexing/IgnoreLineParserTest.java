@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.indexing;
+
+import com.intellij.openapi.fileTypes.FileType;
+import mobi.hsz.idea.gitignore.Common;
+import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
+import mobi.hsz.idea.gitignore.file.type.kind.GitFileType;
+import mobi.hsz.idea.gitignore.file.type.kind.MercurialFileType;
+import mobi.hsz.idea.gitignore.psi.IgnoreEntry;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class IgnoreLineParserTest extends Common<IgnoreLineParser> {
+
+    @Test
+    public void testPrivateConstructor() throws Exception {
+        privateConstructor(IgnoreLineParser.class);
+    }
+
+    @Test
+    public void testGitParity() {
+        assertParity(GitFileType.INSTANCE, createIgnoreContent(
+                "### Header",
+                "## Section",
+                "# comment",
+                "",
+                "foo.txt",
+                "!bar.txt",
+                "  indented/",
+                "/root/*.log",
+                "dir/**/file[0-9].txt",
+                "trailing \\#hash",
+                "\t",
+                "split//entry",
+                "syntax: regexp",
+                "^regexp$",
+                "! spaced",
+                "not parsed"
+        ));
+    }
+
+    @Test
+    public void testMercurialParity() {
+        assertParity(MercurialFileType.INSTANCE, createIgnoreContent(
+                "default.txt",
+                "syntax: glob",
+                "*.class",
+                "!keep.class",
+                "syntax: unknown",
+                "still/glob",
+                "syntax: regexp",
+                "^build/.*$",
+                "!  spaced.class",
+                "not parsed"
+        ));
+    }
+
+    @Test
+    public void testUnparsableContent() {
+        assertValues("foo\n! spaced\nbar", "foo");
+        assertValues("foo\n!#comment\nbar", "foo");
+        assertValues("foo\n/\nbar", "foo");
+        assertValues("a//b\nc", "a/", "/b", "c");
+        assertValues("syntax: regexp\nfoo", "foo");
+    }
+
+    @Test
+    public void testLineBreaks() {
+        final List<String> result = new ArrayList<>();
+        IgnoreLineParser.parse("foo\r\nbar\rbuz\n\n", GitFileType.INSTANCE.getIgnoreLanguage(),
+                (value, negated, syntax) -> result.add(value));
+
+        assertEquals(3, result.size());
+        assertEquals("foo", result.get(0));
+        assertEquals("bar", result.get(1));
+        assertEquals("buz", result.get(2));
+    }
+
+    private void assertValues(@NotNull String content, @NotNull String... values) {
+        final List<String> result = new ArrayList<>();
+        IgnoreLineParser.parse(content, GitFileType.INSTANCE.getIgnoreLanguage(),
+                (value, negated, syntax) -> result.add(value));
+
+        assertEquals(Arrays.asList(values), result);
+    }
+
+    private void assertParity(@NotNull FileType fileType, @NotNull String content) {
+        myFixture.configureByText(fileType, content);
+
+        final List<String> expected = new ArrayList<>();
+        for (IgnoreEntry entry : getFixtureChildrenEntries()) {
+            expected.add(entry.getValue() + "|" + entry.isNegated() + "|" + entry.getSyntax());
+        }
+
+        final List<String> actual = new ArrayList<>();
+        IgnoreLineParser.parse(content, ((IgnoreFileType) fileType).getIgnoreLanguage(),
+                (value, negated, syntax) -> actual.add(value + "|" + negated + "|" + syntax));
+
+        assertNotEmpty(expected);
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.impl.source.tree.SharedImplUtil;
+import mobi.hsz.idea.gitignore.Common;
+import mobi.hsz.idea.gitignore.file.type.IgnoreFileType;
+import mobi.hsz.idea.gitignore.file.type.kind.GitFileType;
+import mobi.hsz.idea.gitignore.file.type.kind.MercurialFileType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.List;
+
+public class IgnoreEntryElementTypeTest extends Common<IgnoreEntryElementType> {
+
+    @Test
+    public void testSingleEntryChange() {
+        myFixture.configureByText(GitFileType.INSTANCE, createIgnoreContent("foo", "ba<caret>r", "baz"));
+        final List<IgnoreEntry> before = getFixtureChildrenEntries();
+        final IgnoreEntry edited = before.get(1);
+
+        assertReparseableRoot(edited, "baxr");
+
+        myFixture.type("x");
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+        final List<IgnoreEntry> after = getFixtureChildrenEntries();
+        assertEquals(3, after.size());
+        assertSame(before.get(0), after.get(0));
+        assertSame(before.get(2), after.get(2));
+        assertEquals("baxr", after.get(1).getValue());
+        assertTreeConsistent(GitFileType.INSTANCE);
+    }
+
+    @Test
+    public void testNegationChange() {
+        myFixture.configureByText(GitFileType.INSTANCE, createIgnoreContent("foo", "<caret>bar", "baz"));
+        assertReparseableRoot(getFixtureChildrenEntries().get(1), "!bar");
+
+        myFixture.type("!");
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+        assertTrue(getFixtureChildrenEntries().get(1).isNegated());
+        assertTreeConsistent(GitFileType.INSTANCE);
+    }
+
+    @Test
+    public void testMultiLineChange() {
+        myFixture.configureByText(GitFileType.INSTANCE, createIgnoreContent("foo", "ba<caret>r", "baz"));
+        assertFullReparse(getFixtureChildrenEntries().get(1), "ba\nr");
+
+        myFixture.type("\n");
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+        assertEquals(4, getFixtureChildrenEntries().size());
+        assertTreeConsistent(GitFileType.INSTANCE);
+    }
+
+    @Test
+    public void testSyntaxChange() {
+        myFixture.configureByText(MercurialFileType.INSTANCE, createIgnoreContent("<caret>glob", "foo"));
+        assertFullReparse(getFixtureChildrenEntries().get(0), "syntax: glob");
+
+        myFixture.type("syntax: ");
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+        final List<IgnoreEntry> after = getFixtureChildrenEntries();
+        assertEquals(1, after.size());
+        assertEquals("foo", after.get(0).getValue());
+        assertTreeConsistent(MercurialFileType.INSTANCE);
+    }
+
+    @Test
+    public void testCommentChange() {
+        myFixture.configureByText(GitFileType.INSTANCE, createIgnoreContent("foo", "<caret>bar", "baz"));
+        assertFullReparse(getFixtureChildrenEntries().get(1), "#bar");
+    }
+
+    /** Asserts that the entry accepts the change and its new text is reparsed into a single valid entry. */
+    private void assertReparseableRoot(@NotNull IgnoreEntry entry, @NotNull String newText) {
+        final ASTNode node = entry.getNode();
+        final IgnoreEntryElementType type = getEntryType(node);
+        assertTrue(type.isParsable(node.getTreeParent(), newText, entry.getLanguage(), getProject()));
+
+        final ASTNode reparsed = type.parse(newText, SharedImplUtil.findCharTableByTree(node));
+        assertSame(type, reparsed.getElementType());
+        assertEquals(newText, reparsed.getText());
+        assertTrue(type.isValidReparse(node, reparsed));
+    }
+
+    /** Asserts that the entry rejects the change, so the whole file has to be reparsed. */
+    private void assertFullReparse(@NotNull IgnoreEntry entry, @NotNull String newText) {
+        final ASTNode node = entry.getNode();
+        assertFalse(getEntryType(node).isParsable(node.getTreeParent(), newText, entry.getLanguage(), getProject()));
+    }
+
+    /** Asserts that the reparsed tree is equal to the tree of a freshly parsed file. */
+    private void assertTreeConsistent(@NotNull IgnoreFileType fileType) {
+        final PsiFile file = myFixture.getFile();
+        final PsiFile fresh = PsiFileFactory.getInstance(getProject())
+                .createFileFromText(file.getName(), fileType, file.getText());
+        assertEquals(DebugUtil.psiToString(fresh, false), DebugUtil.psiToString(file, false));
+    }
+
+    @NotNull
+    private static IgnoreEntryElementType getEntryType(@NotNull ASTNode node) {
+        return assertInstanceOf(node.getElementType(), IgnoreEntryElementType.class);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util;
+
+import com.intellij.openapi.util.io.FileUtil;
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+public class GitConfigReaderTest extends Common<GitConfigReader> {
+
+    @Test
+    public void testPrivateConstructor() throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        privateConstructor(GitConfigReader.class);
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        final File directory = FileUtil.createTempDirectory("gitConfigReader", null);
+        try {
+            final File config = new File(directory, "config");
+            final File missing = new File(directory, "missing");
+            FileUtil.writeToFile(config, createIgnoreContent(
+                    "# comment",
+                    "[core]",
+                    "\texcludesFile = ~/first",
+                    "\teditor = \"vim -f\"   ; trailing comment",
+                    "[Core]",
+                    "\tExcludesFile = ~/.global ignore  # last wins",
+                    "\tmulti = one \\",
+                    "two",
+                    "\tquoted = \" spaced # not comment \"",
+                    "\tbare",
+                    "[remote \"Origin\"]",
+                    "\turl = git@example.com:repo.git",
+                    "[includeIf \"gitdir:~/work/\"]",
+                    "\tpath = never",
+                    "[include]",
+                    "\tpath = inc/extra"
+            ));
+            FileUtil.writeToFile(new File(directory, "inc/extra"), createIgnoreContent(
+                    "[user]",
+                    "\tname = A \\\"B\\\" C",
+                    "[core]",
+                    "\tautocrlf=input"
+            ));
+
+            final GitConfigReader.Snapshot snapshot = GitConfigReader.Snapshot.read(Arrays.asList(config, missing));
+            assertEquals("~/.global ignore", snapshot.getValue("core", "excludesfile"));
+            assertEquals("vim -f", snapshot.getValue("CORE", "editor"));
+            assertEquals("one two", snapshot.getValue("core", "multi"));
+            assertEquals(" spaced # not comment ", snapshot.getValue("core", "quoted"));
+            assertEquals("true", snapshot.getValue("core", "bare"));
+            assertEquals("git@example.com:repo.git", snapshot.getValue("remote.Origin", "url"));
+            assertNull(snapshot.getValue("remote.origin", "url"));
+            assertEquals("A \"B\" C", snapshot.getValue("user", "name"));
+            assertEquals("input", snapshot.getValue("core", "autocrlf"));
+            assertNull(snapshot.getValue("core", "unknown"));
+            assertTrue(snapshot.isUpToDate());
+
+            FileUtil.writeToFile(missing, "[core]\n\texcludesFile = ~/created\n");
+            assertFalse(snapshot.isUpToDate());
+            assertEquals(
+                    "~/created",
+                    GitConfigReader.Snapshot.read(Arrays.asList(config, missing)).getValue("core", "excludesFile")
+            );
+        } finally {
+            FileUtil.delete(directory);
+        }
+    }
+
+}
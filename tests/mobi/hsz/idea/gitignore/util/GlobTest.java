@@ -209,4 +209,22 @@ public class GlobTest extends Common<Glob> {
         Assert.assertFalse(pattern.matcher("dir/foo/bar.txt").matches());
     }
 
+    @Test
+    public void testCompile() {
+        Glob.clearCache();
+
+        final CompiledRule valid = Glob.compile("file.txt", IgnoreBundle.Syntax.GLOB, false);
+        assertTrue(valid.isValid());
+        assertNull(valid.getError());
+        assertNotNull(valid.getPattern());
+        assertSame(valid, Glob.compile("file.txt", IgnoreBundle.Syntax.GLOB, false));
+        assertNotSame(valid, Glob.compile("file.txt", IgnoreBundle.Syntax.GLOB, true));
+        assertNotSame(valid, Glob.compile("file.txt", IgnoreBundle.Syntax.REGEXP, false));
+
+        final CompiledRule invalid = Glob.compile("file(.txt", IgnoreBundle.Syntax.REGEXP, false);
+        assertFalse(invalid.isValid());
+        assertNull(invalid.getPattern());
+        assertNotNull(invalid.getError());
+        assertSame(invalid, Glob.compile("file(.txt", IgnoreBundle.Syntax.REGEXP, false));
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mobi.hsz.idea.gitignore.util;
+
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PathTrieTest extends Common<PathTrie> {
+
+    @Test
+    public void testFindNearest() {
+        final Map<String, String> paths = new HashMap<>();
+        paths.put("/project", "project");
+        paths.put("/project/module", "module");
+        paths.put("/project/module/nested/", "nested");
+
+        final PathTrie<String> trie = PathTrie.create(paths);
+
+        assertEquals(3, trie.size());
+        assertNull(trie.findNearest("/"));
+        assertNull(trie.findNearest("/other"));
+        assertNull(trie.findNearest("/projects"));
+        assertEquals("project", trie.findNearest("/project"));
+        assertEquals("project", trie.findNearest("/project/"));
+        assertEquals("project", trie.findNearest("/project/file.txt"));
+        assertEquals("module", trie.findNearest("/project/module"));
+        assertEquals("module", trie.findNearest("/project/module/src/Foo.java"));
+        assertEquals("module", trie.findNearest("/project/module/nestedFoo"));
+        assertEquals("nested", trie.findNearest("/project/module/nested/dir/file"));
+    }
+
+    @Test
+    public void testIsUnder() {
+        final Map<String, Boolean> paths = new HashMap<>();
+        paths.put("/project/build", true);
+        paths.put("/project/out", true);
+
+        final PathTrie<Boolean> trie = PathTrie.create(paths);
+
+        assertFalse(trie.isUnder("/project"));
+        assertFalse(trie.isUnder("/project/src/build"));
+        assertFalse(trie.isUnder("/project/builds"));
+        assertTrue(trie.isUnder("/project/build"));
+        assertTrue(trie.isUnder("/project/out/classes/Foo.class"));
+    }
+
+    @Test
+    public void testEmpty() {
+        final PathTrie<String> trie = PathTrie.create(new HashMap<>());
+
+        assertTrue(trie.isEmpty());
+        assertFalse(trie.isUnder("/project"));
+        assertNull(trie.findNearest("/project"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vcs.VcsRoot;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ExternalExecTest extends Common<ExternalExec> {
+
+    @Test
+    public void testProcessIgnoredFiles() throws IOException, InterruptedException {
+        final File git = PathEnvironmentVariableUtil.findInPath("git");
+        if (git == null) {
+            return;
+        }
+
+        final File repository = FileUtil.createTempDirectory("externalExec", null);
+        try {
+            FileUtil.writeToFile(new File(repository, "a.log"), "");
+            FileUtil.writeToFile(new File(repository, "b.txt"), "");
+            FileUtil.writeToFile(new File(repository, "dir/c.log"), "");
+            FileUtil.writeToFile(new File(repository, "dir/d.txt"), "");
+            FileUtil.writeToFile(new File(repository, "untracked.log"), "");
+            git(git, repository, "init", "-q");
+            git(git, repository, "add", "a.log", "b.txt", "dir");
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "*.log\n");
+
+            final VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(repository);
+            assertNotNull(root);
+            final VcsRoot vcsRoot = new VcsRoot(null, root);
+
+            final List<String> result = new ArrayList<>();
+            assertTrue(ExternalExec.processIgnoredFiles(vcsRoot, result::add));
+            assertEquals(Arrays.asList("a.log", "dir/c.log"), result);
+
+            result.clear();
+            assertTrue(ExternalExec.processIgnoredFiles(vcsRoot, Collections.singletonList("dir"), result::add));
+            assertEquals(Collections.singletonList("dir/c.log"), result);
+
+            result.clear();
+            assertTrue(ExternalExec.processIgnoredFiles(vcsRoot, Collections.singletonList("b.txt"), result::add));
+            assertEmpty(result);
+        } finally {
+            FileUtil.delete(repository);
+        }
+    }
+
+    private static void git(File git, File directory, String... arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(git.getPath());
+        command.addAll(Arrays.asList(arguments));
+        assertEquals(0, new ProcessBuilder(command).directory(directory).start().waitFor());
+    }
+
+}
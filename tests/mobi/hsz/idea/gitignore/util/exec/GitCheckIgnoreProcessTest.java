@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GitCheckIgnoreProcessTest extends Common<GitCheckIgnoreProcess> {
+
+    @Test
+    public void testReadRecords() throws IOException {
+        final String output = ".gitignore\u00001\u0000*.log\u0000a.log\u0000" +
+                ".gitignore\u00002\u0000!keep.log\u0000keep.log\u0000" +
+                "\u0000\u0000\u0000b.txt\u0000" +
+                ".gitignore\u00003\u0000build/\u0000build\u0000";
+        final Map<String, Boolean> result = new HashMap<>();
+        GitCheckIgnoreProcess.readRecords(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), 4, result);
+
+        assertEquals(4, result.size());
+        assertTrue(result.get("a.log"));
+        assertFalse(result.get("keep.log"));
+        assertFalse(result.get("b.txt"));
+        assertTrue(result.get("build"));
+    }
+
+    @Test
+    public void testCheck() throws IOException, InterruptedException {
+        final File git = PathEnvironmentVariableUtil.findInPath("git");
+        if (git == null) {
+            return;
+        }
+
+        final File repository = FileUtil.createTempDirectory("gitCheckIgnoreProcess", null);
+        try {
+            assertEquals(0, new ProcessBuilder(git.getPath(), "init", "-q").directory(repository).start().waitFor());
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "*.log\n!keep.log\n");
+
+            // more data than any pipe buffer in both directions
+            final String directory = StringUtil.repeat("d", 200);
+            final List<String> paths = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                paths.add(directory + "/file" + i + (i % 2 == 0 ? ".log" : ".txt"));
+            }
+            paths.add("keep.log");
+
+            final GitCheckIgnoreProcess process = GitCheckIgnoreProcess.start(git.getPath(), repository);
+            try {
+                final Map<String, Boolean> result = process.check(paths);
+                assertEquals(paths.size(), result.size());
+                assertTrue(result.get(paths.get(0)));
+                assertFalse(result.get(paths.get(1)));
+                assertFalse(result.get("keep.log"));
+                assertTrue(process.isAlive());
+            } finally {
+                process.close();
+            }
+
+            try {
+                process.check(paths);
+                fail("IOException expected");
+            } catch (IOException ignored) {
+            }
+        } finally {
+            FileUtil.delete(repository);
+        }
+    }
+
+    @Test
+    public void testReadRecordsTruncated() throws IOException {
+        final String output = ".gitignore\u00001\u0000*.log\u0000";
+        try {
+            GitCheckIgnoreProcess.readRecords(
+                    new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), 1, new HashMap<>()
+            );
+            fail("EOFException expected");
+        } catch (EOFException ignored) {
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class GitCheckIgnoreVerifierTest extends Common<GitCheckIgnoreVerifier> {
+
+    @Test
+    public void testIsIgnored() throws IOException, InterruptedException {
+        final File git = PathEnvironmentVariableUtil.findInPath("git");
+        if (git == null) {
+            return;
+        }
+
+        final File repository = FileUtil.createTempDirectory("gitCheckIgnoreVerifier", null);
+        try {
+            assertEquals(0, new ProcessBuilder(git.getPath(), "init", "-q").directory(repository).start().waitFor());
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "*.log\n");
+            FileUtil.writeToFile(new File(repository, "a.log"), "");
+            FileUtil.writeToFile(new File(repository, "b.txt"), "");
+
+            final VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(repository);
+            assertNotNull(root);
+            final VirtualFile log = root.findChild("a.log");
+            final VirtualFile text = root.findChild("b.txt");
+            assertNotNull(log);
+            assertNotNull(text);
+
+            final Semaphore updates = new Semaphore(0);
+            final GitCheckIgnoreVerifier verifier = new GitCheckIgnoreVerifier(updates::release);
+
+            assertNull(verifier.isIgnored(root, log));
+            assertTrue(updates.tryAcquire(10, TimeUnit.SECONDS));
+            assertTrue(verifier.isIgnored(root, log));
+            // siblings are verified in the same batch
+            assertFalse(verifier.isIgnored(root, text));
+
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "*.txt\n");
+            verifier.clear();
+
+            assertNull(verifier.isIgnored(root, log));
+            assertTrue(updates.tryAcquire(10, TimeUnit.SECONDS));
+            assertFalse(verifier.isIgnored(root, log));
+            assertTrue(verifier.isIgnored(root, text));
+        } finally {
+            GitProcessPool.closeAll();
+            FileUtil.delete(repository);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec;
+
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class GitProcessPoolTest extends Common<GitProcessPool> {
+
+    @Test
+    public void testPrivateConstructor() throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        privateConstructor(GitProcessPool.class);
+    }
+
+    @Test
+    public void testCheckIgnore() throws IOException, InterruptedException {
+        final File git = PathEnvironmentVariableUtil.findInPath("git");
+        if (git == null) {
+            return;
+        }
+
+        final File repository = FileUtil.createTempDirectory("gitProcessPool", null);
+        try {
+            assertEquals(0, new ProcessBuilder(git.getPath(), "init", "-q").directory(repository).start().waitFor());
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "*.log\n!keep.log\nbuild/\n");
+            FileUtil.writeToFile(new File(repository, "sub/.gitignore"), "*.txt\n");
+            FileUtil.createDirectory(new File(repository, "build"));
+
+            Map<String, Boolean> result = GitProcessPool.checkIgnore(git.getPath(), repository, Arrays.asList(
+                    "a.log", "keep.log", "b.txt", "build/", "build/x.txt", "sub/c.txt", "sub/c.md"
+            ));
+            assertNotNull(result);
+            assertEquals(7, result.size());
+            assertTrue(result.get("a.log"));
+            assertFalse(result.get("keep.log"));
+            assertFalse(result.get("b.txt"));
+            assertTrue(result.get("build/"));
+            assertTrue(result.get("build/x.txt"));
+            assertTrue(result.get("sub/c.txt"));
+            assertFalse(result.get("sub/c.md"));
+
+            GitProcessPool.closeAll();
+            result = GitProcessPool.checkIgnore(git.getPath(), repository, Collections.singletonList("a.log"));
+            assertNotNull(result);
+            assertTrue(result.get("a.log"));
+
+            assertNull(GitProcessPool.checkIgnore(git.getPath(), repository, Collections.singletonList("../outside")));
+            result = GitProcessPool.checkIgnore(git.getPath(), repository, Collections.singletonList("b.log"));
+            assertNotNull(result);
+            assertTrue(result.get("b.log"));
+        } finally {
+            GitProcessPool.closeAll();
+            FileUtil.delete(repository);
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException, InterruptedException {
+        final File git = PathEnvironmentVariableUtil.findInPath("git");
+        if (git == null) {
+            return;
+        }
+
+        final File repository = FileUtil.createTempDirectory("gitProcessPool", null);
+        try {
+            assertEquals(0, new ProcessBuilder(git.getPath(), "init", "-q").directory(repository).start().waitFor());
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "a.txt\n");
+
+            Map<String, Boolean> result = GitProcessPool.checkIgnore(git.getPath(), repository,
+                    Arrays.asList("a.txt", "b.txt"));
+            assertNotNull(result);
+            assertTrue(result.get("a.txt"));
+            assertFalse(result.get("b.txt"));
+
+            FileUtil.writeToFile(new File(repository, ".gitignore"), "b.txt\n");
+            GitProcessPool.close(repository);
+
+            result = GitProcessPool.checkIgnore(git.getPath(), repository, Arrays.asList("a.txt", "b.txt"));
+            assertNotNull(result);
+            assertFalse(result.get("a.txt"));
+            assertTrue(result.get("b.txt"));
+        } finally {
+            GitProcessPool.closeAll();
+            FileUtil.delete(repository);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 hsz Jakub Chrzanowski <jakub@hsz.mobi>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mobi.hsz.idea.gitignore.util.exec.parser;
+
+import mobi.hsz.idea.gitignore.Common;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class NulSeparatedOutputParserTest extends Common<NulSeparatedOutputParser> {
+
+    private static final List<String> EXPECTED = Arrays.asList(
+            "foo.txt", "dir with space/b\u00e4r.log", "\u00fcn\u00efc\u00f6d\u00e9/\u8def\u5f84/file", "last"
+    );
+
+    private static final byte[] OUTPUT = "foo.txt\u0000dir with space/b\u00e4r.log\u0000\u0000\u00fcn\u00efc\u00f6d\u00e9/\u8def\u5f84/file\u0000last"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testParse() throws IOException {
+        final List<String> result = new ArrayList<>();
+        new NulSeparatedOutputParser(result::add).parse(new ByteArrayInputStream(OUTPUT));
+        assertEquals(EXPECTED, result);
+    }
+
+    @Test
+    public void testSplitChunks() {
+        for (int chunk = 1; chunk <= OUTPUT.length; chunk++) {
+            final List<String> result = new ArrayList<>();
+            final NulSeparatedOutputParser parser = new NulSeparatedOutputParser(result::add);
+            for (int offset = 0; offset < OUTPUT.length; offset += chunk) {
+                parser.feed(OUTPUT, offset, Math.min(chunk, OUTPUT.length - offset));
+            }
+            parser.finish();
+            assertEquals("chunk size " + chunk, EXPECTED, result);
+        }
+    }
+
+}